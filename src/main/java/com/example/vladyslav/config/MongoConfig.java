@@ -1,5 +1,13 @@
 package com.example.vladyslav.config;
 
+import com.example.vladyslav.model.Appointment;
+import com.example.vladyslav.model.AppointmentSeries;
+import com.example.vladyslav.model.DoctorSearchView;
+import com.example.vladyslav.model.SlotClaim;
+import com.example.vladyslav.model.SlotHold;
+import com.example.vladyslav.service.DoctorSearchIndexer;
+import com.example.vladyslav.service.RatingService;
+import com.example.vladyslav.service.SlotClaimService;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -42,10 +50,43 @@ public class MongoConfig {
         };
     }
 
+    /**
+     * Creates the annotated indexes the hot paths rely on even with auto-index creation off: search (text and
+     * name-prefix), the TTLs on holds and claims, the appointment seek indexes and the series sync index.
+     */
     @Bean
     public ApplicationRunner ensureDoctorIndexes(MongoTemplate mongoTemplate){
         return args -> {
-
+            IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+            for (Class<?> type : List.of(DoctorSearchView.class, Appointment.class, SlotHold.class, SlotClaim.class, AppointmentSeries.class)) {
+                IndexOperations indexOps = mongoTemplate.indexOps(type);
+                resolver.resolveIndexFor(type).forEach(indexOps::ensureIndex);
+            }
         };
     }
+
+    /**
+     * Appointments booked before slot claims existed have no claims; claim them once so
+     * overlap prevention does not depend on a pre-read.
+     */
+    @Bean
+    public ApplicationRunner backfillSlotClaims(SlotClaimService slotClaimService){
+        return args -> slotClaimService.backfill();
+    }
+
+    /**
+     * Doctors from before ratingSum/ratingCount existed get their aggregates computed once.
+     */
+    @Bean
+    public ApplicationRunner repairRatingAggregates(RatingService ratingService){
+        return args -> ratingService.repairIfMissing();
+    }
+
+    /**
+     * Fills the doctor_search read model the first time it is deployed against existing data.
+     */
+    @Bean
+    public ApplicationRunner rebuildDoctorSearch(DoctorSearchIndexer doctorSearchIndexer){
+        return args -> doctorSearchIndexer.rebuildIfStale();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.example.vladyslav.controller;
+
+import com.example.vladyslav.dto.BookingQueueStatsDTO;
+import com.example.vladyslav.dto.CacheStatsDTO;
+import com.example.vladyslav.dto.RetryStatsDTO;
+import com.example.vladyslav.service.BookingGate;
+import com.example.vladyslav.service.DoctorCache;
+import com.example.vladyslav.service.OptimisticRetry;
+import com.example.vladyslav.service.RatingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final DoctorCache doctorCache;
+
+    private final RatingService ratingService;
+
+    private final BookingGate bookingGate;
+
+    private final OptimisticRetry optimisticRetry;
+
+    @GetMapping("/cache/doctors")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CacheStatsDTO> doctorCacheStats(){
+        return ResponseEntity.ok(doctorCache.stats());
+    }
+
+    /**
+     * Queue depth and rejection counters of the serialized booking mode
+     */
+    @GetMapping("/booking-queue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BookingQueueStatsDTO> bookingQueueStats(){
+        return ResponseEntity.ok(bookingGate.stats());
+    }
+
+    /**
+     * Optimistic-lock conflicts seen by appointment mutations and how many were retried or gave up
+     */
+    @GetMapping("/retries")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RetryStatsDTO> retryStats(){
+        return ResponseEntity.ok(optimisticRetry.stats());
+    }
+
+    /**
+     * Recomputes every doctor's rating aggregates from the reviews collection
+     */
+    @PostMapping("/repair/ratings")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> repairRatings(){
+        ratingService.repairAll();
+        return ResponseEntity.noContent().build();
+    }
+}
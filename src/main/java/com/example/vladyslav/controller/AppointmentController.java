@@ -1,23 +1,34 @@
 package com.example.vladyslav.controller;
 
 import com.example.vladyslav.dto.AppointmentDTO;
+import com.example.vladyslav.dto.AppointmentSeriesDTO;
+import com.example.vladyslav.dto.CursorPageDTO;
+import com.example.vladyslav.dto.SlotHoldDTO;
+import com.example.vladyslav.dto.SyncDTO;
 import com.example.vladyslav.model.Appointment;
 import com.example.vladyslav.model.User;
 import com.example.vladyslav.model.enums.AppointmentStatus;
 import com.example.vladyslav.repository.DoctorRepository;
+import com.example.vladyslav.requests.AppointmentSeriesRequest;
 import com.example.vladyslav.requests.RescheduleRequest;
+import com.example.vladyslav.service.AppointmentExportWriter;
+import com.example.vladyslav.service.AppointmentSeriesService;
 import com.example.vladyslav.service.AppointmentService;
 import com.example.vladyslav.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.Instant;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 
 @RestController
@@ -26,6 +37,7 @@ import java.util.Optional;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
+    private final AppointmentSeriesService appointmentSeriesService;
     private final DoctorRepository doctorRepository;
     private final UserService userService;
 
@@ -36,6 +48,16 @@ public class AppointmentController {
         return ResponseEntity.ok(appointmentService.getAllAppointments(page, size));
     }
 
+    /**
+     * Keyset variant of /all: pass the returned nextCursor to continue, no total is computed
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/all/cursor")
+    public ResponseEntity<CursorPageDTO<AppointmentDTO>> getAppointmentsByCursor(@RequestParam(required = false) String cursor,
+                                                                                 @RequestParam(defaultValue = "50") int size){
+        return ResponseEntity.ok(appointmentService.getAllAppointments(cursor, size));
+    }
+
     @GetMapping("/id/{appointmentId}")
     public ResponseEntity<AppointmentDTO> getAppointmentById(@PathVariable String appointmentId){
         return ResponseEntity.ok(appointmentService.getAppointmentById(appointmentId));
@@ -49,6 +71,39 @@ public class AppointmentController {
         return ResponseEntity.ok(appointmentService.getAppointmentsByPatientId(patientId, page, size));
     }
 
+    @GetMapping("/patient-id/{patientId}/cursor")
+    public ResponseEntity<CursorPageDTO<AppointmentDTO>> getAppointmentsByPatientIdCursor(@PathVariable String patientId,
+                                                                                          @RequestParam(required = false) String cursor,
+                                                                                          @RequestParam(defaultValue = "50") int size){
+        return ResponseEntity.ok(appointmentService.getAppointmentsByPatientId(patientId, cursor, size));
+    }
+
+    @PreAuthorize("hasAnyRole('DOCTOR','ADMIN')")
+    @GetMapping("/doctor/{doctorId}/cursor")
+    public ResponseEntity<CursorPageDTO<AppointmentDTO>> getAppointmentsByDoctorIdCursor(@PathVariable String doctorId,
+                                                                                         @RequestParam(required = false) String cursor,
+                                                                                         @RequestParam(defaultValue = "50") int size){
+        return ResponseEntity.ok(appointmentService.getAppointmentsByDoctorId(doctorId, cursor, size));
+    }
+
+    /**
+     * Changes since syncToken; omit the token for a full initial sync
+     */
+    @PreAuthorize("hasAnyRole('DOCTOR','ADMIN')")
+    @GetMapping("/doctor/{doctorId}/sync")
+    public ResponseEntity<SyncDTO<AppointmentDTO>> syncForDoctor(@PathVariable String doctorId,
+                                                                 @RequestParam(required = false) String syncToken,
+                                                                 @RequestParam(defaultValue = "100") int size){
+        return ResponseEntity.ok(appointmentService.syncForDoctor(doctorId, syncToken, size));
+    }
+
+    @GetMapping("/patient-id/{patientId}/sync")
+    public ResponseEntity<SyncDTO<AppointmentDTO>> syncForPatient(@PathVariable String patientId,
+                                                                  @RequestParam(required = false) String syncToken,
+                                                                  @RequestParam(defaultValue = "100") int size){
+        return ResponseEntity.ok(appointmentService.syncForPatient(patientId, syncToken, size));
+    }
+
     @PreAuthorize("hasAnyRole('DOCTOR','ADMIN')")
     @GetMapping("/doctor/{doctorId}")
     public ResponseEntity<Page<AppointmentDTO>> getAppointmentsByDoctorId(@PathVariable String doctorId,
@@ -62,6 +117,40 @@ public class AppointmentController {
             return new ResponseEntity<>(appointmentService.createAppointment(appointment), HttpStatus.CREATED);
     }
 
+    /**
+     * Books a weekly series, e.g. {"doctorId": ..., "patientId": ..., "firstStart": ..., "firstEnd": ..., "count": 12}
+     */
+    @PostMapping("/series")
+    public ResponseEntity<AppointmentSeriesDTO> createSeries(@RequestBody AppointmentSeriesRequest request) {
+        return new ResponseEntity<>(appointmentSeriesService.createSeries(request), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/series/{seriesId}")
+    public ResponseEntity<AppointmentSeriesDTO> getSeries(@PathVariable String seriesId) {
+        return ResponseEntity.ok(appointmentSeriesService.getSeries(seriesId));
+    }
+
+    @PostMapping("/series/{seriesId}/cancel")
+    public ResponseEntity<AppointmentSeriesDTO> cancelSeries(@PathVariable String seriesId) {
+        return ResponseEntity.ok(appointmentSeriesService.cancelSeries(seriesId));
+    }
+
+    @PostMapping("/holds")
+    public ResponseEntity<SlotHoldDTO> holdSlot(@RequestBody Appointment appointment) {
+        return new ResponseEntity<>(appointmentService.holdSlot(appointment), HttpStatus.CREATED);
+    }
+
+    @PostMapping("/holds/{holdId}/confirm")
+    public ResponseEntity<AppointmentDTO> confirmHold(@PathVariable String holdId) {
+        return new ResponseEntity<>(appointmentService.confirmHold(holdId), HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Void> releaseHold(@PathVariable String holdId) {
+        appointmentService.releaseHold(holdId);
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/cancel/{appointmentId}")
     public ResponseEntity<Void> cancel(@PathVariable String appointmentId){
         appointmentService.cancel(appointmentId);
@@ -101,6 +190,49 @@ public class AppointmentController {
         return ResponseEntity.ok(appointmentService.getAppointmentsByClinicId(clinicId, page, size));
     }
 
+    @GetMapping("/by-clinic/{clinicId}/cursor")
+    public ResponseEntity<CursorPageDTO<AppointmentDTO>> getAppointmentsByClinicIdCursor(@PathVariable String clinicId,
+                                                                                         @RequestParam(required = false) String cursor,
+                                                                                         @RequestParam(defaultValue = "50") int size){
+        return ResponseEntity.ok(appointmentService.getAppointmentsByClinicId(clinicId, cursor, size));
+    }
+
+    /**
+     * CSV or NDJSON export of a clinic's appointments in [from, to), streamed row by row.
+     * e.g. GET /api/appointments/by-clinic/{id}/export?from=2025-01-01T00:00:00Z&to=2025-04-01T00:00:00Z&format=CSV&gzip=true
+     */
+    @PreAuthorize("hasAnyRole('CLINIC','ADMIN')")
+    @GetMapping("/by-clinic/{clinicId}/export")
+    public ResponseEntity<StreamingResponseBody> exportByClinic(@PathVariable String clinicId,
+                                                                @RequestParam Instant from,
+                                                                @RequestParam Instant to,
+                                                                @RequestParam(defaultValue = "CSV") AppointmentExportWriter.Format format,
+                                                                @RequestParam(defaultValue = "false") boolean gzip){
+        // Fail before the body starts; once streaming the status is already sent
+        appointmentService.validateExportRange(from, to);
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream zipped = new GZIPOutputStream(out, 64 * 1024);
+                appointmentService.exportForClinic(clinicId, from, to, format, zipped);
+                zipped.finish();
+            } else {
+                appointmentService.exportForClinic(clinicId, from, to, format, out);
+            }
+        };
+
+        // A .gz download is a gzip file, not an encoded CSV: with Content-Encoding clients would unpack it
+        // and still save it under the .gz name
+        String filename = "appointments-" + clinicId + "." + format.extension + (gzip ? ".gz" : "");
+        MediaType contentType = gzip
+                ? MediaType.parseMediaType("application/gzip")
+                : MediaType.parseMediaType(format.contentType + ";charset=UTF-8");
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
     @GetMapping("/doctor-id/{doctorId}/by-status")
     public ResponseEntity<Page<AppointmentDTO>> findByDoctorIdAndStatusBetween(@PathVariable String doctorId,
                                                                                @RequestParam AppointmentStatus appointmentStatus,
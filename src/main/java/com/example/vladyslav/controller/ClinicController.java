@@ -1,13 +1,16 @@
 package com.example.vladyslav.controller;
 
+import com.example.vladyslav.dto.ClinicBoardDTO;
 import com.example.vladyslav.dto.ClinicDTO;
 import com.example.vladyslav.dto.DoctorDTO;
 import com.example.vladyslav.requests.ClinicRegisterRequest;
+import com.example.vladyslav.service.ClinicBoardService;
 import com.example.vladyslav.service.ClinicService;
 import com.example.vladyslav.service.DoctorService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +18,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +32,8 @@ public class ClinicController {
 
     private final DoctorService doctorService;
 
+    private final ClinicBoardService clinicBoardService;
+
     @PostMapping(
             value = "/register",
             consumes = MediaType.MULTIPART_FORM_DATA_VALUE
@@ -109,4 +115,14 @@ public class ClinicController {
     ) {
         return new ResponseEntity<>(service.findClinicsNear(page, size, lat, lon, radiusKm), HttpStatus.FOUND);
     }
+
+    /**
+     * Slot grid of every doctor in the clinic, e.g. GET /api/clinics/{clinicId}/board?from=2025-03-03
+     */
+    @GetMapping("/{clinicId}/board")
+    public ResponseEntity<ClinicBoardDTO> getBoard(@PathVariable String clinicId,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(clinicBoardService.getBoard(clinicId, from, to));
+    }
 }
@@ -1,15 +1,20 @@
 package com.example.vladyslav.controller;
 
 import com.example.vladyslav.dto.DoctorDTO;
+import com.example.vladyslav.dto.FacetedDoctorSearchDTO;
+import com.example.vladyslav.dto.SlotDTO;
 import com.example.vladyslav.model.enums.AppointmentType;
 import com.example.vladyslav.model.enums.LanguageCode;
 import com.example.vladyslav.requests.DoctorRegisterRequest;
 import com.example.vladyslav.search.DoctorSearchCriteria;
 import com.example.vladyslav.service.DoctorService;
+import com.example.vladyslav.service.SlotService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -30,6 +35,8 @@ public class DoctorController {
 
     private final DoctorService doctorService;
 
+    private final SlotService slotService;
+
 
     @GetMapping("/all")
     public ResponseEntity<Page<DoctorDTO>> getAllDoctors(@RequestParam(defaultValue = "0") int page,
@@ -52,6 +59,16 @@ public class DoctorController {
         return ResponseEntity.ok(doctorService.getDoctorById(id));
     }
 
+    /**
+     * Free slots for a doctor, e.g. GET /api/doctors/{id}/slots?from=2025-03-03&to=2025-03-09
+     */
+    @GetMapping("/{id}/slots")
+    public ResponseEntity<List<SlotDTO>> getFreeSlots(@PathVariable String id,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        return ResponseEntity.ok(slotService.getFreeSlots(id, from, to));
+    }
+
 //    @GetMapping
 //    public ResponseEntity<Page<DoctorDTO>> getDoctorsByClinicAndRating(@RequestParam(required = false) String clinicId,
 //                                                                       @RequestParam(required = false) @Min(0) Integer minRating,
@@ -85,18 +102,99 @@ public class DoctorController {
             @RequestParam(required = false) String city,
             @RequestParam(required = false) String postCode,
             @RequestParam(required = false) String clinicId,
-//            @RequestParam(required = false) Double lng,
-//            @RequestParam(required = false) Double lat,
-//            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Integer minFee,
+            @RequestParam(required = false) Integer maxFee,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "true") boolean exactTotal,
+            Pageable pageable
+    )   {
+        DoctorSearchCriteria criteria = new DoctorSearchCriteria(
+            specialityId, language, city, postCode, clinicId, lat, lng, radiusKm, minFee, maxFee, q, prefix
+        );
+        return ResponseEntity.ok(doctorService.search(criteria, pageable, exactTotal));
+    }
+
+    /**
+     * Same filters as {@link #searchDoctor}; the page comes back with counts per speciality, language,
+     * fee bucket and appointment type
+     */
+    @GetMapping("/faceted")
+    public ResponseEntity<FacetedDoctorSearchDTO> searchDoctorFaceted(
+            @RequestParam(required = false) String specialityId,
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String postCode,
+            @RequestParam(required = false) String clinicId,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Integer minFee,
+            @RequestParam(required = false) Integer maxFee,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String prefix,
+            Pageable pageable
+    )   {
+        DoctorSearchCriteria criteria = new DoctorSearchCriteria(
+            specialityId, language, city, postCode, clinicId, lat, lng, radiusKm, minFee, maxFee, q, prefix
+        );
+        return ResponseEntity.ok(doctorService.searchFaceted(criteria, pageable));
+    }
+
+    /**
+     * Same filters as {@link #searchDoctor} without a total count, for infinite scroll
+     */
+    @GetMapping("/slice")
+    public ResponseEntity<Slice<DoctorDTO>> searchDoctorSlice(
+            @RequestParam(required = false) String specialityId,
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String postCode,
+            @RequestParam(required = false) String clinicId,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double radiusKm,
             @RequestParam(required = false) Integer minFee,
             @RequestParam(required = false) Integer maxFee,
             @RequestParam(required = false) String q,
+            @RequestParam(required = false) String prefix,
             Pageable pageable
     )   {
         DoctorSearchCriteria criteria = new DoctorSearchCriteria(
-            specialityId, language, city, postCode, clinicId, minFee, maxFee, q
+            specialityId, language, city, postCode, clinicId, lat, lng, radiusKm, minFee, maxFee, q, prefix
+        );
+        return ResponseEntity.ok(doctorService.searchSlice(criteria, pageable));
+    }
+
+    /**
+     * Earliest free slots across every doctor matching the search filters, e.g.
+     * GET /api/doctors/earliest-slots?specialityId=...&city=London&days=7&limit=10
+     */
+    @GetMapping("/earliest-slots")
+    public ResponseEntity<List<SlotDTO>> earliestSlots(
+            @RequestParam(required = false) String specialityId,
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String postCode,
+            @RequestParam(required = false) String clinicId,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Integer minFee,
+            @RequestParam(required = false) Integer maxFee,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "14") int days,
+            @RequestParam(defaultValue = "20") int limit
+    )   {
+        DoctorSearchCriteria criteria = new DoctorSearchCriteria(
+            specialityId, language, city, postCode, clinicId, lat, lng, radiusKm, minFee, maxFee, q, prefix
         );
-        return ResponseEntity.ok(doctorService.search(criteria, pageable));
+        return ResponseEntity.ok(slotService.earliestSlots(criteria, from, days, limit));
     }
 
     @PutMapping("/update/{doctorId}")
@@ -21,6 +21,7 @@ public class AppointmentDTO {
     private Instant start;
     private Instant end;
     private AppointmentStatus status;
+    private String seriesId;
     private Instant createdAt;
     private Instant updatedAt;
     private Long version;
@@ -0,0 +1,29 @@
+package com.example.vladyslav.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AppointmentSeriesDTO {
+    private String id;
+    private String doctorId;
+    private String patientId;
+    private String clinicId;
+    private int durationMinutes;
+    private int intervalWeeks;
+    private Integer count;
+    private LocalDate until;
+    private List<Instant> occurrences;
+    private int materializedCount;
+    private boolean cancelled;
+    private Instant createdAt;
+}
@@ -0,0 +1,26 @@
+package com.example.vladyslav.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One doctor's slots in time order. starts, minutes and states are parallel: slot i starts at starts[i],
+ * lasts minutes[i] and has state states.charAt(i) - F free, B booked, H held, O time off.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BoardRowDTO {
+    private String doctorId;
+    private String firstName;
+    private String lastName;
+    private List<Instant> starts;
+    private List<Integer> minutes;
+    private String states;
+}
@@ -0,0 +1,22 @@
+package com.example.vladyslav.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingQueueStatsDTO {
+    private boolean enabled;
+    private int queueDepth;
+    private int maxQueueDepth;
+    private long admitted;
+    private long rejectedOccupied;
+    private long rejectedQueueFull;
+    private long timedOut;
+    private long conflicts;
+    private int trackedDoctors;
+}
@@ -0,0 +1,23 @@
+package com.example.vladyslav.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStatsDTO {
+    private int size;
+    private int maxSize;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long secondTierHits;
+    private long evictions;
+    private long expirations;
+    private long rejections;
+    private long invalidations;
+}
@@ -0,0 +1,25 @@
+package com.example.vladyslav.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Every doctor's slot grid in a clinic for a date range, as sent to reception screens.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClinicBoardDTO {
+    private String clinicId;
+    private LocalDate from;
+    private LocalDate to;
+    private Instant generatedAt;
+    private List<BoardRowDTO> doctors;
+}
@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @AllArgsConstructor
@@ -27,6 +28,8 @@ public class ClinicDTO {
     private String imageUrl;
     //private List<ReviewDTO> reviewDTOS = new ArrayList<>();
     private Float averageRating;
+    private Integer ratingCount;
+    private Map<String, Integer> ratingHistogram;
     private double latitude;
     private double longitude;
     private Instant createdAt;
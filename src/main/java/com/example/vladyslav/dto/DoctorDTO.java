@@ -10,11 +10,12 @@ import lombok.NoArgsConstructor;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class DoctorDTO {
 
     private String id;
@@ -23,15 +24,22 @@ public class DoctorDTO {
     private String lastName;
     private String email;
     private String specialityId;
+    private String specialityTitle;
+    private String clinicId;
+    private String clinicName;
+    private String clinicCity;
     private String phoneNumber;
     private LocalDate dateOfBirth;
     private String bio;
     private Float averageRating;
+    private Integer ratingCount;
+    private Map<String, Integer> ratingHistogram;
     private List<ReviewDTO> latestReviews;
     private List<LanguageCode> languages;
     private Instant createdAt;
     private Instant updatedAt;
     private String imageUrl;
+    private Double distanceKm; // only set by location searches
 
     @Builder.Default
     private int consultationFee = 0;
@@ -0,0 +1,21 @@
+package com.example.vladyslav.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetedDoctorSearchDTO {
+    private List<DoctorDTO> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private Map<String, List<FacetCountDTO>> facets;
+}
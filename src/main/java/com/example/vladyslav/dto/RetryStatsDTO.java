@@ -0,0 +1,17 @@
+package com.example.vladyslav.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RetryStatsDTO {
+    private int maxAttempts;
+    private long conflicts;
+    private long retries;
+    private long exhausted;
+}
@@ -0,0 +1,22 @@
+package com.example.vladyslav.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlotHoldDTO {
+    private String id;
+    private String doctorId;
+    private String patientId;
+    private String clinicId;
+    private Instant start;
+    private Instant end;
+    private Instant expiresAt;
+}
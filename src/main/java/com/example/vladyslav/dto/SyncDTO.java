@@ -0,0 +1,22 @@
+package com.example.vladyslav.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Rows changed since the token that was sent. Send syncToken on the next call;
+ * keep calling while hasMore is true. Rows can repeat across calls, so apply them as upserts by id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncDTO<T> {
+    private List<T> changes;
+    private String syncToken;
+    private boolean hasMore;
+}
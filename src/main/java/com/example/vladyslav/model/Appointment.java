@@ -24,7 +24,15 @@ import java.time.Instant;
 
 @CompoundIndexes({
         @CompoundIndex(name = "uniq_doctor_start", def = "{ 'doctorId': 1, 'start': 1 }", unique = true),
-        @CompoundIndex(name = "idx_doctor_range", def = "{ 'doctorId': 1, 'start': 1, 'end': 1 }")
+        @CompoundIndex(name = "idx_doctor_range", def = "{ 'doctorId': 1, 'start': 1, 'end': 1 }"),
+        // Keyset listings seek on (owner, start, _id), newest first
+        @CompoundIndex(name = "idx_doctor_seek", def = "{ 'doctorId': 1, 'start': -1, '_id': -1 }"),
+        @CompoundIndex(name = "idx_patient_seek", def = "{ 'patientId': 1, 'start': -1, '_id': -1 }"),
+        @CompoundIndex(name = "idx_clinic_seek", def = "{ 'clinicId': 1, 'start': -1, '_id': -1 }"),
+        @CompoundIndex(name = "idx_seek", def = "{ 'start': -1, '_id': -1 }"),
+        // Change sync walks (owner, updatedAt, _id) forward
+        @CompoundIndex(name = "idx_doctor_sync", def = "{ 'doctorId': 1, 'updatedAt': 1, '_id': 1 }"),
+        @CompoundIndex(name = "idx_patient_sync", def = "{ 'patientId': 1, 'updatedAt': 1, '_id': 1 }")
 })
 public class Appointment {
 
@@ -50,6 +58,12 @@ public class Appointment {
 
     private AppointmentStatus status;
 
+    /**
+     * Set when the appointment is one occurrence of an {@link AppointmentSeries}
+     */
+    @Indexed(sparse = true)
+    private String seriesId;
+
     @CreatedDate
     private Instant createdAt;
 
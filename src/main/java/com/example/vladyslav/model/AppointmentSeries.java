@@ -0,0 +1,81 @@
+package com.example.vladyslav.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A weekly recurring booking. Occurrence i starts at the first start's UK wall-clock time,
+ * i * intervalWeeks weeks later, so sessions stay at the same local time across DST changes.
+ * <p>
+ * Every occurrence has its slot claimed when the series is created. Only occurrences inside the rolling
+ * horizon exist as {@link Appointment}s; the rest are written as the horizon reaches them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document("appointment_series")
+@CompoundIndex(name = "idx_doctor_next_start", def = "{ 'doctorId': 1, 'nextStart': 1 }")
+public class AppointmentSeries {
+
+    @Id
+    private String id;
+
+    private String doctorId;
+
+    private String patientId;
+
+    private String clinicId;
+
+    private Instant firstStart;
+
+    private int durationMinutes;
+
+    @Builder.Default
+    private int intervalWeeks = 1;
+
+    /**
+     * Exactly one of count and until was given; occurrenceIds holds the resolved occurrences either way
+     */
+    private Integer count;
+
+    private LocalDate until;
+
+    /**
+     * Appointment id of every occurrence, in order, fixed up front so claims and appointments can refer to them
+     */
+    @Builder.Default
+    private List<String> occurrenceIds = new ArrayList<>();
+
+    /**
+     * Occurrences [0, materializedCount) have been written as appointments
+     */
+    private int materializedCount;
+
+    /**
+     * Start of the first occurrence not yet written; null once all are written or the series was cancelled
+     */
+    @Indexed(sparse = true)
+    private Instant nextStart;
+
+    private boolean cancelled;
+
+    /**
+     * Both set by the service: the id is assigned up front and writes after creation are targeted updates,
+     * so auditing never fills these in
+     */
+    private Instant createdAt;
+
+    private Instant updatedAt;
+}
@@ -47,11 +47,3 @@ public class AvailabilityRule {
    private List<Window> breaks;
 }
 
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-class Window {
-    private LocalTime startBreak;
-    private LocalTime endBreak;
-}
-
@@ -19,7 +19,9 @@ import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -59,7 +61,16 @@ public class Clinic {
 //    @Builder.Default
 //    private List<Review> reviews = new ArrayList<>();
 
-    private Float averageRating;
+    private Float averageRating; // rolled up across the clinic's doctors by RatingService
+
+    @Builder.Default
+    private double ratingSum = 0;
+
+    @Builder.Default
+    private int ratingCount = 0;
+
+    @Builder.Default
+    private Map<String, Integer> ratingHistogram = new HashMap<>();
 
     @DBRef
     private User user;
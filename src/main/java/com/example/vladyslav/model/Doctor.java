@@ -20,7 +20,9 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.Period;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 
 @Data
@@ -66,7 +68,17 @@ public class Doctor {
     @Builder.Default
     private List<LanguageCode> languages = new ArrayList<>();
 
-    private Float averageRating;
+    private Float averageRating; // ratingSum / ratingCount, kept by RatingService
+
+    @Builder.Default
+    private double ratingSum = 0;
+
+    @Builder.Default
+    private int ratingCount = 0;
+
+    // Star (1..5) -> number of reviews, ratings rounded half up
+    @Builder.Default
+    private Map<String, Integer> ratingHistogram = new HashMap<>();
 
     @Indexed
     @Min(0)
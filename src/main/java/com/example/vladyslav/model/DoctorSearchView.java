@@ -0,0 +1,161 @@
+package com.example.vladyslav.model;
+
+import com.example.vladyslav.model.enums.AppointmentType;
+import com.example.vladyslav.model.enums.LanguageCode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Denormalized read model for doctor search, one document per doctor (same id).
+ * Speciality and clinic data are embedded so search never resolves a DBRef.
+ * Written only by DoctorSearchIndexer.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "doctor_search")
+public class DoctorSearchView {
+
+    /**
+     * Bumped whenever a derived field is added, so startup rebuilds documents written by an older version
+     */
+    public static final int SCHEMA_VERSION = 6;
+
+    /**
+     * Fixed projection used by the search endpoints
+     */
+    public static final String[] FIELDS = {
+            "userId", "firstName", "lastName", "email", "specialityId", "specialityTitle",
+            "clinicId", "clinicName", "clinicCity", "clinicPostCode", "location",
+            "averageRating", "ratingCount", "ratingHistogram", "consultationFee", "languages", "appointmentTypes",
+            "phoneNumber", "dateOfBirth", "bio", "imageUrl", "createdAt", "updatedAt"
+    };
+
+    @Id
+    private String id;
+
+    private String userId;
+
+    @TextIndexed(weight = 3f)
+    private String firstName;
+
+    @TextIndexed(weight = 3f)
+    private String lastName;
+
+    /**
+     * Normalized first name, matched by substring for the staff lookup
+     */
+    @Indexed
+    private String firstNameKey;
+
+    /**
+     * Normalized last name, matched by substring for the last-name and staff lookups
+     */
+    @Indexed
+    private String lastNameKey;
+
+    /**
+     * Lowercase, accent-free prefixes of the first, last and full name for as-you-type matching
+     */
+    @Indexed
+    @Builder.Default
+    private List<String> nameTokens = new ArrayList<>();
+
+    private String email;
+
+    /**
+     * Lower-cased email, matched by substring for staff lookups
+     */
+    @Indexed
+    private String emailKey;
+
+    @Indexed
+    private String specialityId;
+
+    @TextIndexed(weight = 2f)
+    private String specialityTitle;
+
+    @Indexed
+    private String clinicId;
+
+    private String clinicName;
+
+    private String clinicCity;
+
+    private String clinicPostCode;
+
+    /**
+     * Normalized clinic city, matched by equality
+     */
+    @Indexed
+    private String cityKey;
+
+    /**
+     * Clinic postcode upper-cased without spaces, matched by equality when a full postcode is searched
+     */
+    @Indexed
+    private String postCodeKey;
+
+    /**
+     * Outward half of the clinic postcode ("SW1A" for "SW1A 1AA"), matched by equality so "N1" does not find "N10"
+     */
+    @Indexed
+    private String outwardCode;
+
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint location;
+
+    private Float averageRating;
+
+    private int ratingCount;
+
+    /**
+     * Review count per rounded star, "1".."5", copied from the doctor like averageRating
+     */
+    @Builder.Default
+    private Map<String, Integer> ratingHistogram = new HashMap<>();
+
+    @Indexed
+    private int consultationFee;
+
+    @Indexed
+    @Builder.Default
+    private List<LanguageCode> languages = new ArrayList<>();
+
+    @Indexed
+    @Builder.Default
+    private List<AppointmentType> appointmentTypes = new ArrayList<>();
+
+    private String phoneNumber;
+
+    private LocalDate dateOfBirth;
+
+    @TextIndexed
+    private String bio;
+
+    private String imageUrl;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+
+    @Builder.Default
+    private int schemaVersion = SCHEMA_VERSION;
+}
@@ -0,0 +1,47 @@
+package com.example.vladyslav.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One claimed 5-minute granule of a doctor's calendar.
+ * The id is "doctorId:granuleStartEpochMillis", so the primary key itself rejects a second claim
+ * on the same granule and overlap prevention needs no read.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document("slot_claims")
+public class SlotClaim {
+
+    @Id
+    private String id;
+
+    private String doctorId;
+
+    /**
+     * Past claims are useless, let Mongo drop them a month after the slot
+     */
+    @Indexed(expireAfter = "30d")
+    private Instant slotStart;
+
+    /**
+     * Appointment or hold that owns this granule
+     */
+    @Indexed
+    private String ownerId;
+
+    /**
+     * Set only for claims made by a hold; appointment claims never expire on their own
+     */
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+}
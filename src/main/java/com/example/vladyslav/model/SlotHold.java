@@ -0,0 +1,46 @@
+package com.example.vladyslav.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Short-lived reservation of a slot while the patient completes checkout.
+ * Confirming turns it into an {@link Appointment} with the same id; otherwise Mongo drops it after expiresAt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document("slot_holds")
+@CompoundIndex(name = "idx_doctor_hold_range", def = "{ 'doctorId': 1, 'start': 1, 'end': 1 }")
+public class SlotHold {
+
+    @Id
+    private String id;
+
+    private String doctorId;
+
+    private String patientId;
+
+    private String clinicId;
+
+    private Instant start;
+
+    private Instant end;
+
+    /**
+     * Set by the service: the id is assigned up front, so auditing would treat the hold as existing
+     */
+    private Instant createdAt;
+
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+}
@@ -0,0 +1,18 @@
+package com.example.vladyslav.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+
+/**
+ * A break inside a working day (UK local time), e.g. lunch 13:00-14:00.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Window {
+    private LocalTime startBreak;
+    private LocalTime endBreak;
+}
@@ -8,6 +8,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +28,10 @@ public interface AppointmentRepository extends MongoRepository<Appointment, Stri
 
     List<Appointment> findByDoctorIdAndStartLessThanAndEndGreaterThan(String doctorId, Instant endExclusive, Instant startExclusive);
 
+    List<Appointment> findByDoctorIdAndStatusNotAndStartLessThanAndEndGreaterThan(String doctorId, AppointmentStatus status, Instant endExclusive, Instant startExclusive);
+
+    List<Appointment> findByDoctorIdInAndStatusNotAndStartLessThanAndEndGreaterThan(Collection<String> doctorIds, AppointmentStatus status, Instant endExclusive, Instant startExclusive);
+
     Page<Appointment> findByStatus(AppointmentStatus status, Pageable pageable);
 
     @Query("{ 'doctorId': ?0, 'status': ?1, 'start': { $gte: ?2 }, 'end': { $lte: ?3 } }")
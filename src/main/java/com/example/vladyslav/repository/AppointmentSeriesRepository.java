@@ -0,0 +1,15 @@
+package com.example.vladyslav.repository;
+
+import com.example.vladyslav.model.AppointmentSeries;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface AppointmentSeriesRepository extends MongoRepository<AppointmentSeries, String> {
+
+    List<AppointmentSeries> findByNextStartBefore(Instant horizon);
+
+    List<AppointmentSeries> findByDoctorIdInAndNextStartLessThan(Collection<String> doctorIds, Instant endExclusive);
+}
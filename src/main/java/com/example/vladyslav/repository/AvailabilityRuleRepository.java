@@ -3,6 +3,7 @@ package com.example.vladyslav.repository;
 import com.example.vladyslav.model.AvailabilityRule;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,5 +11,7 @@ public interface AvailabilityRuleRepository extends MongoRepository<Availability
 
     List<AvailabilityRule> findByDoctorId(String doctorId);
 
+    List<AvailabilityRule> findByDoctorIdIn(Collection<String> doctorIds);
+
     Optional<AvailabilityRule> findByDoctorIdAndDayOfWeek(String doctorId, int dayOfWeek);
 }
@@ -0,0 +1,11 @@
+package com.example.vladyslav.repository;
+
+import com.example.vladyslav.model.DoctorSearchView;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface DoctorSearchRepository extends MongoRepository<DoctorSearchView, String> {
+
+    List<DoctorSearchView> findByClinicIdOrderByLastNameAscFirstNameAsc(String clinicId);
+}
@@ -0,0 +1,15 @@
+package com.example.vladyslav.repository;
+
+import com.example.vladyslav.model.SlotHold;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface SlotHoldRepository extends MongoRepository<SlotHold, String> {
+
+    List<SlotHold> findByDoctorIdAndStartLessThanAndEndGreaterThanAndExpiresAtAfter(String doctorId, Instant endExclusive, Instant startExclusive, Instant now);
+
+    List<SlotHold> findByDoctorIdInAndStartLessThanAndEndGreaterThanAndExpiresAtAfter(Collection<String> doctorIds, Instant endExclusive, Instant startExclusive, Instant now);
+}
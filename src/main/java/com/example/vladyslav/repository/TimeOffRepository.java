@@ -7,11 +7,18 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface TimeOffRepository extends MongoRepository<TimeOff, String > {
 
+    List<TimeOff> findByDoctorIdAndEndGreaterThanEqual(String doctorId, Instant from);
+
     List<TimeOff> findByDoctorIdAndStartLessThanEqualAndEndGreaterThanEqual(String doctorId, Instant end, Instant start);
 
+    List<TimeOff> findByDoctorIdAndStartLessThanAndEndGreaterThan(String doctorId, Instant endExclusive, Instant startExclusive);
+
+    List<TimeOff> findByDoctorIdInAndStartLessThanAndEndGreaterThan(Collection<String> doctorIds, Instant endExclusive, Instant startExclusive);
+
     Page<TimeOff> findByDoctorIdAndStartAfter(String doctorId, LocalDate start, Pageable pageable);
 }
@@ -0,0 +1,18 @@
+package com.example.vladyslav.requests;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Data
+public class AppointmentSeriesRequest {
+    private String doctorId;
+    private String patientId;
+    private String clinicId;
+    private Instant firstStart;
+    private Instant firstEnd;
+    private Integer intervalWeeks;
+    private Integer count;
+    private LocalDate until;
+}
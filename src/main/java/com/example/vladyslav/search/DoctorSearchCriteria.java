@@ -13,12 +13,14 @@ public class DoctorSearchCriteria {
     private String postCode;
     private String clinicId;
 
-//    private Double lat;
-//    private Double lng;
-//    private Double radiusKm;
+    private Double lat;
+    private Double lng;
+    private Double radiusKm; // optional with lat/lng; results are sorted by distance either way
 
     private Integer minFee;
     private Integer maxFee;
 
-    private String q; // text search: name, bio
+    private String q; // text search: name, speciality, bio
+
+    private String prefix; // as-you-type name prefix
 }
@@ -0,0 +1,121 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.model.Appointment;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+
+/**
+ * Writes appointments one row at a time as CSV or newline-delimited JSON.
+ * Holds nothing but a buffered writer, so memory does not depend on how many rows pass through.
+ */
+public class AppointmentExportWriter {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        public final String contentType;
+        public final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+    }
+
+    private static final String[] COLUMNS = {"id", "doctorId", "patientId", "clinicId", "start", "end", "status", "createdAt", "updatedAt"};
+
+    private final Writer out;
+    private final Format format;
+    private long rows;
+
+    public AppointmentExportWriter(OutputStream out, Format format) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        this.format = format;
+    }
+
+    /**
+     * Writes every row and flushes; the caller owns and closes the stream.
+     *
+     * @return number of rows written
+     */
+    public long writeAll(Iterator<Appointment> appointments) throws IOException {
+        if (format == Format.CSV) out.write(String.join(",", COLUMNS) + "\n");
+        while (appointments.hasNext()) write(appointments.next());
+        out.flush();
+        return rows;
+    }
+
+    private void write(Appointment a) throws IOException {
+        String[] values = {
+                a.getId(), a.getDoctorId(), a.getPatientId(), a.getClinicId(),
+                text(a.getStart()), text(a.getEnd()),
+                a.getStatus() != null ? a.getStatus().name() : null,
+                text(a.getCreatedAt()), text(a.getUpdatedAt())
+        };
+        if (format == Format.CSV) {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                csv(values[i]);
+            }
+        } else {
+            out.write('{');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                out.write('"');
+                out.write(COLUMNS[i]);
+                out.write("\":");
+                json(values[i]);
+            }
+            out.write('}');
+        }
+        out.write('\n');
+        rows++;
+    }
+
+    private static String text(Instant instant) {
+        return instant != null ? instant.toString() : null;
+    }
+
+    private void csv(String value) throws IOException {
+        if (value == null) return;
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private void json(String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) out.write(String.format("\\u%04x", (int) c));
+                    else out.write(c);
+                }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,363 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.dto.AppointmentSeriesDTO;
+import com.example.vladyslav.exception.NotFoundException;
+import com.example.vladyslav.exception.OurException;
+import com.example.vladyslav.model.Appointment;
+import com.example.vladyslav.model.AppointmentSeries;
+import com.example.vladyslav.model.enums.AppointmentStatus;
+import com.example.vladyslav.repository.AppointmentRepository;
+import com.example.vladyslav.repository.AppointmentSeriesRepository;
+import com.example.vladyslav.requests.AppointmentSeriesRequest;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.vladyslav.service.SlotEngine.UK_TZ;
+
+/**
+ * Weekly appointment series. Creating one validates every occurrence in a single pass: availability and
+ * time-off come from the in-process caches, existing appointments from one range query. Then all occurrences
+ * are claimed in one bulk insert, and the ones inside the horizon are written in one bulk insert.
+ * Later occurrences are written by {@link #materializeDue} as the horizon reaches them.
+ */
+@Service
+public class AppointmentSeriesService {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentSeriesService.class);
+
+    private static final int MAX_OCCURRENCES = 52;
+    private static final int MAX_INTERVAL_WEEKS = 4;
+
+    private final AppointmentSeriesRepository appointmentSeriesRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentService appointmentService;
+    private final TimeOffIndex timeOffIndex;
+    private final SlotClaimService slotClaimService;
+    private final MongoTemplate mongoTemplate;
+    private final long horizonDays;
+
+    public AppointmentSeriesService(AppointmentSeriesRepository appointmentSeriesRepository,
+                                    AppointmentRepository appointmentRepository,
+                                    AppointmentService appointmentService,
+                                    TimeOffIndex timeOffIndex,
+                                    SlotClaimService slotClaimService,
+                                    MongoTemplate mongoTemplate,
+                                    @Value("${app.series.horizon-days:28}") long horizonDays) {
+        this.appointmentSeriesRepository = appointmentSeriesRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentService = appointmentService;
+        this.timeOffIndex = timeOffIndex;
+        this.slotClaimService = slotClaimService;
+        this.mongoTemplate = mongoTemplate;
+        this.horizonDays = horizonDays;
+    }
+
+    public AppointmentSeriesDTO createSeries(AppointmentSeriesRequest request) {
+        AppointmentSeries series = resolve(request);
+        List<Appointment> occurrences = occurrences(series, 0, series.getOccurrenceIds().size());
+        validate(occurrences);
+
+        slotClaimService.claimAll(occurrences);
+        try {
+            appointmentSeriesRepository.insert(series);
+            materialize(series, occurrences);
+        } catch (RuntimeException e) {
+            mongoTemplate.remove(Query.query(Criteria.where("seriesId").is(series.getId())), Appointment.class);
+            appointmentSeriesRepository.deleteById(series.getId());
+            slotClaimService.release(series.getOccurrenceIds());
+            throw e;
+        }
+        return toDto(series);
+    }
+
+    public AppointmentSeriesDTO getSeries(String seriesId) {
+        return toDto(find(seriesId));
+    }
+
+    /**
+     * Stops the series: future occurrences are cancelled if already written, never written otherwise,
+     * and their slots are freed. Past occurrences are left alone.
+     */
+    public AppointmentSeriesDTO cancelSeries(String seriesId) {
+        // Conditional so exactly one cancel wins, and targeted so materializedCount is never overwritten
+        AppointmentSeries series = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(seriesId).and("cancelled").is(false)),
+                new Update().set("cancelled", true).unset("nextStart").set("updatedAt", Instant.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                AppointmentSeries.class);
+        if (series == null) {
+            // Already cancelled, or no such series
+            return toDto(find(seriesId));
+        }
+
+        cancelFutureOccurrences(series);
+        return toDto(series);
+    }
+
+    /**
+     * Cancels the written future occurrences and frees the slots of every future occurrence, written or not.
+     */
+    private void cancelFutureOccurrences(AppointmentSeries series) {
+        String seriesId = series.getId();
+        Instant now = Instant.now();
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("seriesId").is(seriesId)
+                        .and("start").gt(now)
+                        .and("status").ne(AppointmentStatus.CANCELLED)),
+                new Update()
+                        .set("status", AppointmentStatus.CANCELLED)
+                        .set("updatedAt", now)
+                        .inc("version", 1),
+                Appointment.class);
+
+        List<String> future = new ArrayList<>();
+        for (int i = 0; i < series.getOccurrenceIds().size(); i++) {
+            if (occurrenceStart(series, i).isAfter(now)) future.add(series.getOccurrenceIds().get(i));
+        }
+        slotClaimService.release(future);
+    }
+
+    /**
+     * Occurrences of live series that overlap [from, to) but are not written as appointments yet, grouped by
+     * doctor. Their slots are already claimed, so anything that builds busy time from appointments adds these,
+     * or they would show as free and every booking of them would fail with 409. One query for all doctors.
+     */
+    public Map<String, List<Appointment>> pendingOccurrences(Collection<String> doctorIds, Instant from, Instant to) {
+        Map<String, List<Appointment>> pending = new HashMap<>();
+        for (AppointmentSeries series : appointmentSeriesRepository.findByDoctorIdInAndNextStartLessThan(doctorIds, to)) {
+            if (series.isCancelled()) continue;
+            for (Appointment a : occurrences(series, series.getMaterializedCount(), series.getOccurrenceIds().size())) {
+                if (!a.getStart().isBefore(to)) break;
+                if (a.getEnd().isAfter(from)) pending.computeIfAbsent(series.getDoctorId(), id -> new ArrayList<>()).add(a);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Writes the occurrences that have come inside the horizon. Safe to run on every node at once:
+     * occurrence ids are fixed, so a second writer only hits duplicate keys, and the count only moves forward.
+     */
+    @Scheduled(fixedDelayString = "${app.series.materialize-ms:3600000}")
+    public void materializeDue() {
+        for (AppointmentSeries series : appointmentSeriesRepository.findByNextStartBefore(horizon())) {
+            if (series.isCancelled()) continue;
+            List<Appointment> rest = occurrences(series, series.getMaterializedCount(), series.getOccurrenceIds().size());
+            try {
+                materialize(series, rest);
+            } catch (RuntimeException e) {
+                // One bad series must not hold up the others; it is picked up again on the next run
+                log.warn("Could not materialize appointment series {}", series.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * Inserts the leading occurrences that start before the horizon and moves the series' progress past them.
+     */
+    private void materialize(AppointmentSeries series, List<Appointment> pending) {
+        Instant horizon = horizon();
+        List<Appointment> due = new ArrayList<>();
+        for (Appointment a : pending) {
+            if (!a.getStart().isBefore(horizon)) break;
+            due.add(a);
+        }
+        if (!due.isEmpty()) {
+            // Bulk inserts skip version initialisation and treat a set version as "not new" for auditing
+            Instant now = Instant.now();
+            List<String> blocked = new ArrayList<>();
+            for (Appointment a : due) {
+                a.setVersion(0L);
+                a.setCreatedAt(now);
+                a.setUpdatedAt(now);
+                // Time-off added after the series was booked wins; the occurrence is written cancelled
+                if (timeOffIndex.overlaps(a.getDoctorId(), a.getStart(), a.getEnd())) {
+                    a.setStatus(AppointmentStatus.CANCELLED);
+                    blocked.add(a.getId());
+                }
+            }
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Appointment.class).insert(due).execute();
+            } catch (DataAccessException e) {
+                // Already written by another node; anything else is left for the next run
+                if (!allWritten(due)) throw e;
+            }
+            slotClaimService.release(blocked);
+
+            // A cancel that committed while we were inserting did not see these rows, so cancel them here.
+            // Either the cancel's own update runs after our insert, or this check sees its flag.
+            if (mongoTemplate.exists(Query.query(Criteria.where("_id").is(series.getId()).and("cancelled").is(true)), AppointmentSeries.class)) {
+                cancelFutureOccurrences(series);
+                return;
+            }
+        }
+
+        int written = series.getMaterializedCount() + due.size();
+        Instant next = written < series.getOccurrenceIds().size() ? occurrenceStart(series, written) : null;
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(series.getId()).and("materializedCount").lt(written).and("cancelled").is(false)),
+                new Update().set("materializedCount", written).set("nextStart", next).set("updatedAt", Instant.now()),
+                AppointmentSeries.class);
+        series.setMaterializedCount(written);
+        series.setNextStart(next);
+    }
+
+    private boolean allWritten(List<Appointment> appointments) {
+        List<String> ids = appointments.stream().map(Appointment::getId).toList();
+        return mongoTemplate.count(Query.query(Criteria.where("_id").in(ids)), Appointment.class) == ids.size();
+    }
+
+    /**
+     * Checks every occurrence and reports all failing dates at once instead of stopping at the first.
+     */
+    private void validate(List<Appointment> occurrences) {
+        Appointment first = occurrences.get(0);
+        Appointment last = occurrences.get(occurrences.size() - 1);
+        List<Appointment> existing = new ArrayList<>(appointmentRepository.findByDoctorIdInAndStatusNotAndStartLessThanAndEndGreaterThan(
+                List.of(first.getDoctorId()), AppointmentStatus.CANCELLED, last.getEnd(), first.getStart()));
+        existing.addAll(pendingOccurrences(List.of(first.getDoctorId()), first.getStart(), last.getEnd())
+                .getOrDefault(first.getDoctorId(), List.of()));
+        IntervalSet booked = SlotService.appointmentIntervals(existing);
+
+        DoctorDaySnapshot snapshot = appointmentService.snapshot(first.getDoctorId());
+        List<String> problems = new ArrayList<>();
+        for (Appointment occurrence : occurrences) {
+            String date = occurrence.getStart().atZone(UK_TZ).toLocalDate().toString();
+            try {
+                snapshot.ensureWithinAvailability(occurrence);
+            } catch (OurException e) {
+                problems.add(date + " outside working hours");
+                continue;
+            }
+            if (snapshot.duringTimeOff(occurrence.getStart(), occurrence.getEnd())) {
+                problems.add(date + " during time-off");
+            } else if (booked.overlaps(occurrence.getStart().toEpochMilli(), occurrence.getEnd().toEpochMilli())) {
+                problems.add(date + " already booked");
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new OurException("Series cannot be booked: " + String.join(", ", problems));
+        }
+    }
+
+    private AppointmentSeries resolve(AppointmentSeriesRequest request) {
+        Appointment firstDraft = Appointment.builder()
+                .doctorId(request.getDoctorId())
+                .patientId(request.getPatientId())
+                .start(request.getFirstStart())
+                .end(request.getFirstEnd())
+                .build();
+        appointmentService.validateDraft(firstDraft);
+
+        int interval = request.getIntervalWeeks() != null ? request.getIntervalWeeks() : 1;
+        if (interval < 1 || interval > MAX_INTERVAL_WEEKS) {
+            throw new OurException("intervalWeeks must be between 1 and " + MAX_INTERVAL_WEEKS);
+        }
+        if ((request.getCount() == null) == (request.getUntil() == null)) {
+            throw new OurException("Give either count or until.");
+        }
+
+        AppointmentSeries series = AppointmentSeries.builder()
+                .id(new ObjectId().toHexString())
+                .doctorId(request.getDoctorId())
+                .patientId(request.getPatientId())
+                .clinicId(request.getClinicId())
+                .firstStart(request.getFirstStart())
+                .durationMinutes((int) Duration.between(request.getFirstStart(), request.getFirstEnd()).toMinutes())
+                .intervalWeeks(interval)
+                .count(request.getCount())
+                .until(request.getUntil())
+                .build();
+
+        int total;
+        if (request.getCount() != null) {
+            total = request.getCount();
+        } else {
+            total = 0;
+            while (total <= MAX_OCCURRENCES && !occurrenceStart(series, total).atZone(UK_TZ).toLocalDate().isAfter(request.getUntil())) {
+                total++;
+            }
+        }
+        if (total < 1 || total > MAX_OCCURRENCES) {
+            throw new OurException("A series must have between 1 and " + MAX_OCCURRENCES + " occurrences.");
+        }
+
+        for (int i = 0; i < total; i++) series.getOccurrenceIds().add(new ObjectId().toHexString());
+        series.setNextStart(series.getFirstStart());
+        series.setCreatedAt(Instant.now());
+        series.setUpdatedAt(series.getCreatedAt());
+        return series;
+    }
+
+    private List<Appointment> occurrences(AppointmentSeries series, int from, int to) {
+        List<Appointment> result = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            Instant start = occurrenceStart(series, i);
+            result.add(Appointment.builder()
+                    .id(series.getOccurrenceIds().get(i))
+                    .doctorId(series.getDoctorId())
+                    .patientId(series.getPatientId())
+                    .clinicId(series.getClinicId())
+                    .start(start)
+                    .end(start.plus(Duration.ofMinutes(series.getDurationMinutes())))
+                    .status(AppointmentStatus.SCHEDULED)
+                    .seriesId(series.getId())
+                    .build());
+        }
+        return result;
+    }
+
+    static Instant occurrenceStart(AppointmentSeries series, int index) {
+        LocalDateTime first = LocalDateTime.ofInstant(series.getFirstStart(), UK_TZ);
+        return first.plusWeeks((long) index * series.getIntervalWeeks()).atZone(UK_TZ).toInstant();
+    }
+
+    private Instant horizon() {
+        return LocalDate.now(UK_TZ).plusDays(horizonDays + 1).atStartOfDay(UK_TZ).toInstant();
+    }
+
+    private AppointmentSeries find(String seriesId) {
+        return appointmentSeriesRepository.findById(seriesId)
+                .orElseThrow(() -> new NotFoundException("Appointment series not found with id " + seriesId));
+    }
+
+    private AppointmentSeriesDTO toDto(AppointmentSeries series) {
+        List<Instant> starts = new ArrayList<>(series.getOccurrenceIds().size());
+        for (int i = 0; i < series.getOccurrenceIds().size(); i++) starts.add(occurrenceStart(series, i));
+        return AppointmentSeriesDTO.builder()
+                .id(series.getId())
+                .doctorId(series.getDoctorId())
+                .patientId(series.getPatientId())
+                .clinicId(series.getClinicId())
+                .durationMinutes(series.getDurationMinutes())
+                .intervalWeeks(series.getIntervalWeeks())
+                .count(series.getCount())
+                .until(series.getUntil())
+                .occurrences(starts)
+                .materializedCount(series.getMaterializedCount())
+                .cancelled(series.isCancelled())
+                .createdAt(series.getCreatedAt())
+                .build();
+    }
+}
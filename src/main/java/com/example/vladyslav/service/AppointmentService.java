@@ -1,6 +1,9 @@
 package com.example.vladyslav.service;
 
 import com.example.vladyslav.dto.AppointmentDTO;
+import com.example.vladyslav.dto.CursorPageDTO;
+import com.example.vladyslav.dto.SlotHoldDTO;
+import com.example.vladyslav.dto.SyncDTO;
 import com.example.vladyslav.exception.NotFoundException;
 import com.example.vladyslav.exception.OurException;
 import com.example.vladyslav.model.*;
@@ -9,27 +12,60 @@ import com.example.vladyslav.model.enums.Role;
 import com.example.vladyslav.repository.*;
 import com.example.vladyslav.requests.RescheduleRequest;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.*;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class AppointmentService {
 
-    private static final ZoneId UK_TZ = ZoneId.of("Europe/London");
+
+    private static final int MAX_CURSOR_PAGE = 200;
+
+    /**
+     * updatedAt is stamped before the write commits, so a row can appear with a timestamp slightly behind
+     * rows already returned. Sync tokens never move past now minus this window.
+     */
+    private static final long SYNC_LOOKBACK_MILLIS = 10_000;
 
     private final AppointmentRepository appointmentRepository;
-    private final AvailabilityRuleRepository availabilityRuleRepository;
-    private final TimeOffRepository timeOffRepository;
     private final DoctorRepository doctorRepository;
+    private final TimeOffIndex timeOffIndex;
+    private final SlotClaimService slotClaimService;
+    private final SlotHoldRepository slotHoldRepository;
+    private final AvailabilityCache availabilityCache;
+    private final MongoTemplate mongoTemplate;
+    private final BookingGate bookingGate;
+    private final OptimisticRetry optimisticRetry;
+
+    /**
+     * How long a slot stays held while the patient completes checkout
+     */
+    @Value("${app.booking.hold-seconds:120}")
+    private long holdSeconds;
 
     public AppointmentDTO toDto(Appointment a){
         return AppointmentDTO.builder()
@@ -40,12 +76,25 @@ public class AppointmentService {
                 .start(a.getStart())
                 .end(a.getEnd())
                 .status(a.getStatus())
+                .seriesId(a.getSeriesId())
                 .createdAt(a.getCreatedAt())
                 .updatedAt(a.getUpdatedAt())
                 .version(a.getVersion())
                 .build();
     }
 
+    public SlotHoldDTO toHoldDto(SlotHold h){
+        return SlotHoldDTO.builder()
+                .id(h.getId())
+                .doctorId(h.getDoctorId())
+                .patientId(h.getPatientId())
+                .clinicId(h.getClinicId())
+                .start(h.getStart())
+                .end(h.getEnd())
+                .expiresAt(h.getExpiresAt())
+                .build();
+    }
+
     public Page<AppointmentDTO> getAllAppointments(int page, int size){
         Pageable pageable = PageRequest.of(page, size);
         Page<Appointment> appointments = appointmentRepository.findAll(pageable);
@@ -66,17 +115,31 @@ public class AppointmentService {
 
     public AppointmentDTO createAppointment(Appointment draft) {
         validateDraft(draft);
-        ensureWithinAvailability(draft);
-        ensureNotDuringTimeOff(draft);
-        ensureNoOverlap(draft);
+        return bookingGate.run(draft.getDoctorId(), draft.getStart(), draft.getEnd(), null, () -> book(draft));
+    }
+
+    private AppointmentDTO book(Appointment draft) {
+        snapshot(draft.getDoctorId()).ensureBookable(draft);
         draft.setStatus(draft.getStatus() == null ? AppointmentStatus.SCHEDULED : draft.getStatus());
 
-        appointmentRepository.save(draft);
+        // Id is assigned up front so the slot claims can reference the appointment
+        draft.setId(new ObjectId().toHexString());
+        slotClaimService.claim(draft.getDoctorId(), draft.getStart(), draft.getEnd(), draft.getId());
+        try {
+            appointmentRepository.save(draft);
+        } catch (RuntimeException e) {
+            slotClaimService.release(draft.getId());
+            throw e;
+        }
 
         return toDto(draft);
     }
 
     public AppointmentDTO reschedule(String id, RescheduleRequest request) {
+        return optimisticRetry.run("Appointment " + id, () -> rescheduleOnce(id, request));
+    }
+
+    private AppointmentDTO rescheduleOnce(String id, RescheduleRequest request) {
         Appointment appointment = appointmentRepository.findById(id).orElseThrow(()-> new NotFoundException("Appointment not found with Appointment ID " + id));
 
         if(appointment.getStatus() == AppointmentStatus.CANCELLED) {
@@ -95,22 +158,134 @@ public class AppointmentService {
                 .build();
 
         validateDraft(appointmentCheck);
-        ensureWithinAvailability(appointmentCheck);
-        ensureNotDuringTimeOff(appointmentCheck);
-        ensureNoOverlapForRescheduling(appointmentCheck);
+        Instant oldStart = appointment.getStart(), oldEnd = appointment.getEnd();
+
+        // The old range is released first so a move that overlaps itself is not rejected by the booking gate
+        bookingGate.released(appointment.getDoctorId(), oldStart, oldEnd);
+        return bookingGate.run(appointment.getDoctorId(), request.getNewStart(), request.getNewEnd(), null, () -> {
+            snapshot(appointmentCheck.getDoctorId()).ensureBookable(appointmentCheck);
+
+            slotClaimService.move(appointment.getDoctorId(), oldStart, oldEnd, request.getNewStart(), request.getNewEnd(), id);
+
+            appointment.setStart(request.getNewStart());
+            appointment.setEnd(request.getNewEnd());
+            try {
+                appointmentRepository.save(appointment);
+            } catch (RuntimeException e) {
+                // Usually a version conflict: another writer moved or cancelled it, so follow what is stored
+                slotClaimService.reconcile(id, appointmentRepository.findById(id).orElse(null));
+                throw e;
+            }
 
-        appointment.setStart(request.getNewStart());
-        appointment.setEnd(request.getNewEnd());
-        appointmentRepository.save(appointment);
+            return toDto(appointment);
+        });
+
+    }
+
+    /**
+     * Reserves a slot for a short time without booking it. The hold claims the slot like an appointment does,
+     * so it blocks other bookings and holds, and shows as taken in the slot listing until it expires.
+     */
+    public SlotHoldDTO holdSlot(Appointment draft) {
+        validateDraft(draft);
+        Instant expiresAt = Instant.now().plusSeconds(holdSeconds);
+        return bookingGate.run(draft.getDoctorId(), draft.getStart(), draft.getEnd(), expiresAt, () -> hold(draft, expiresAt));
+    }
+
+    private SlotHoldDTO hold(Appointment draft, Instant expiresAt) {
+        snapshot(draft.getDoctorId()).ensureBookable(draft);
+
+        SlotHold hold = SlotHold.builder()
+                .id(new ObjectId().toHexString())
+                .doctorId(draft.getDoctorId())
+                .patientId(draft.getPatientId())
+                .clinicId(draft.getClinicId())
+                .start(draft.getStart())
+                .end(draft.getEnd())
+                .createdAt(Instant.now())
+                .expiresAt(expiresAt)
+                .build();
+
+        slotClaimService.claim(hold.getDoctorId(), hold.getStart(), hold.getEnd(), hold.getId(), hold.getExpiresAt());
+        try {
+            slotHoldRepository.save(hold);
+        } catch (RuntimeException e) {
+            slotClaimService.release(hold.getId());
+            throw e;
+        }
+
+        return toHoldDto(hold);
+    }
+
+    /**
+     * Turns a live hold into a scheduled appointment. The appointment reuses the hold id,
+     * so the hold's slot claims carry over without being re-inserted.
+     * <p>
+     * The hold is removed first, so only one confirm per hold gets past that point. A repeated confirm
+     * (double click, client retry) gets the appointment the first one created and never touches its claims.
+     */
+    public AppointmentDTO confirmHold(String holdId) {
+        SlotHold hold = mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(holdId)), SlotHold.class);
+        if (hold == null) {
+            return appointmentRepository.findById(holdId)
+                    .map(this::toDto)
+                    .orElseThrow(() -> new NotFoundException("Hold not found with id " + holdId));
+        }
+
+        if (!hold.getExpiresAt().isAfter(Instant.now())) {
+            slotClaimService.release(holdId);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Hold expired, please pick the slot again.");
+        }
+
+        slotClaimService.persist(hold.getId(), hold.getDoctorId(), hold.getStart(), hold.getEnd());
+
+        Appointment appointment = Appointment.builder()
+                .id(hold.getId())
+                .doctorId(hold.getDoctorId())
+                .patientId(hold.getPatientId())
+                .clinicId(hold.getClinicId())
+                .start(hold.getStart())
+                .end(hold.getEnd())
+                .status(AppointmentStatus.SCHEDULED)
+                .build();
+        try {
+            appointmentRepository.save(appointment);
+        } catch (RuntimeException e) {
+            slotClaimService.release(hold.getId());
+            throw e;
+        }
 
         return toDto(appointment);
+    }
 
+    public void releaseHold(String holdId) {
+        slotHoldRepository.findById(holdId)
+                .ifPresent(h -> bookingGate.released(h.getDoctorId(), h.getStart(), h.getEnd()));
+        slotHoldRepository.deleteById(holdId);
+        slotClaimService.release(holdId);
     }
 
+    /**
+     * One conditional update with no read first, so it cannot lose an optimistic-lock race.
+     * Cancelling an already cancelled appointment is a no-op.
+     */
     public void cancel(String id) {
-        Appointment appointment = appointmentRepository.findById(id).orElseThrow(()-> new NotFoundException("Appointment not found with id " + id));
-        appointment.setStatus(AppointmentStatus.CANCELLED);
-        appointmentRepository.save(appointment);
+        Query live = Query.query(Criteria.where("_id").is(id).and("status").ne(AppointmentStatus.CANCELLED));
+        // findAndModify skips auditing, so updatedAt is stamped here; the version bump keeps in-flight saves from overwriting the cancel
+        Update cancelled = new Update()
+                .set("status", AppointmentStatus.CANCELLED)
+                .set("updatedAt", Instant.now())
+                .inc("version", 1);
+
+        Appointment appointment = mongoTemplate.findAndModify(live, cancelled, Appointment.class);
+        if (appointment == null) {
+            if (!appointmentRepository.existsById(id)) {
+                throw new NotFoundException("Appointment not found with id " + id);
+            }
+            return;
+        }
+        slotClaimService.release(id);
+        bookingGate.released(appointment.getDoctorId(), appointment.getStart(), appointment.getEnd());
     }
 
     public  Page<AppointmentDTO> getAppointmentsByPatientId(String patientId, int page, int size){
@@ -156,6 +331,152 @@ public class AppointmentService {
         return appointmentPage.map(this::toDto);
     }
 
+    public CursorPageDTO<AppointmentDTO> getAppointmentsByDoctorId(String doctorId, String cursor, int size){
+        return seek(Criteria.where("doctorId").is(doctorId), cursor, size);
+    }
+
+    public CursorPageDTO<AppointmentDTO> getAppointmentsByPatientId(String patientId, String cursor, int size){
+        return seek(Criteria.where("patientId").is(patientId), cursor, size);
+    }
+
+    public CursorPageDTO<AppointmentDTO> getAppointmentsByClinicId(String clinicId, String cursor, int size){
+        return seek(Criteria.where("clinicId").is(clinicId), cursor, size);
+    }
+
+    public CursorPageDTO<AppointmentDTO> getAllAppointments(String cursor, int size){
+        return seek(null, cursor, size);
+    }
+
+    /**
+     * Keyset page, newest first: seeks past the (start, _id) of the previous page's last row on the
+     * (owner, start, _id) index instead of skipping, and fetches one extra row instead of counting.
+     */
+    private CursorPageDTO<AppointmentDTO> seek(Criteria owner, String cursor, int size){
+        int limit = Math.max(1, Math.min(size, MAX_CURSOR_PAGE));
+
+        List<Criteria> criteria = new ArrayList<>();
+        if (owner != null) criteria.add(owner);
+        if (cursor != null && !cursor.isBlank()) criteria.add(afterCursor(cursor));
+
+        Query query = new Query();
+        if (!criteria.isEmpty()) query.addCriteria(new Criteria().andOperator(criteria.toArray(new Criteria[0])));
+        query.with(Sort.by(Sort.Order.desc("start"), Sort.Order.desc("_id"))).limit(limit + 1);
+
+        List<Appointment> rows = mongoTemplate.find(query, Appointment.class);
+        boolean hasNext = rows.size() > limit;
+        if (hasNext) rows = rows.subList(0, limit);
+
+        Appointment last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        return CursorPageDTO.<AppointmentDTO>builder()
+                .content(rows.stream().map(this::toDto).toList())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? encodeCursor(last.getStart(), last.getId()) : null)
+                .build();
+    }
+
+    public SyncDTO<AppointmentDTO> syncForDoctor(String doctorId, String syncToken, int size){
+        return sync(Criteria.where("doctorId").is(doctorId), syncToken, size);
+    }
+
+    public SyncDTO<AppointmentDTO> syncForPatient(String patientId, String syncToken, int size){
+        return sync(Criteria.where("patientId").is(patientId), syncToken, size);
+    }
+
+    /**
+     * Appointments created, changed or cancelled after the token position, oldest change first.
+     * The new token is the last returned row that is older than the lookback window; newer rows are returned
+     * too but will be sent again next time, so a late-committing write is never skipped.
+     */
+    private SyncDTO<AppointmentDTO> sync(Criteria owner, String syncToken, int size){
+        int limit = Math.max(1, Math.min(size, MAX_CURSOR_PAGE));
+
+        Query query = new Query(owner);
+        if (syncToken != null && !syncToken.isBlank()) query.addCriteria(changedAfter(syncToken));
+        query.with(Sort.by(Sort.Order.asc("updatedAt"), Sort.Order.asc("_id"))).limit(limit + 1);
+
+        List<Appointment> rows = mongoTemplate.find(query, Appointment.class);
+        boolean more = rows.size() > limit;
+        if (more) rows = rows.subList(0, limit);
+
+        Instant settled = Instant.now().minusMillis(SYNC_LOOKBACK_MILLIS);
+        String nextToken = syncToken;
+        boolean allSettled = true;
+        for (Appointment a : rows) {
+            if (a.getUpdatedAt() == null || !a.getUpdatedAt().isBefore(settled)) {
+                allSettled = false;
+                break;
+            }
+            nextToken = encodeCursor(a.getUpdatedAt(), a.getId());
+        }
+
+        return SyncDTO.<AppointmentDTO>builder()
+                .changes(rows.stream().map(this::toDto).toList())
+                .syncToken(nextToken != null ? nextToken : "")
+                // Only page on while the token advances; unsettled rows come back on the next sync anyway
+                .hasMore(more && allSettled)
+                .build();
+    }
+
+    private static Criteria changedAfter(String syncToken){
+        Object[] position = decodeCursor(syncToken);
+        Instant updatedAt = (Instant) position[0];
+        return new Criteria().orOperator(
+                Criteria.where("updatedAt").gt(updatedAt),
+                new Criteria().andOperator(Criteria.where("updatedAt").is(updatedAt), Criteria.where("_id").gt(position[1])));
+    }
+
+    public void validateExportRange(Instant from, Instant to){
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+        }
+    }
+
+    /**
+     * Streams a clinic's appointments in [from, to) straight from a Mongo cursor into 'out', ordered by start.
+     * Only the current cursor batch is in memory, whatever the size of the range.
+     *
+     * @return number of rows written
+     */
+    public long exportForClinic(String clinicId, Instant from, Instant to, AppointmentExportWriter.Format format, OutputStream out) throws IOException {
+        validateExportRange(from, to);
+        Query query = Query.query(Criteria.where("clinicId").is(clinicId).and("start").gte(from).lt(to))
+                .with(Sort.by(Sort.Order.asc("start"), Sort.Order.asc("_id")))
+                .cursorBatchSize(1000);
+
+        try (Stream<Appointment> rows = mongoTemplate.stream(query, Appointment.class)) {
+            return new AppointmentExportWriter(out, format).writeAll(rows.iterator());
+        }
+    }
+
+    private static String encodeCursor(Instant start, String id){
+        String raw = start.toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Rows strictly after the cursor position in (start desc, _id desc) order
+     */
+    private static Criteria afterCursor(String cursor){
+        Object[] position = decodeCursor(cursor);
+        Instant start = (Instant) position[0];
+        return new Criteria().orOperator(
+                Criteria.where("start").lt(start),
+                new Criteria().andOperator(Criteria.where("start").is(start), Criteria.where("_id").lt(position[1])));
+    }
+
+    /**
+     * (Instant, ObjectId) from a token written by {@link #encodeCursor}
+     */
+    private static Object[] decodeCursor(String cursor){
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            return new Object[]{Instant.ofEpochMilli(Long.parseLong(raw.substring(0, sep))), new ObjectId(raw.substring(sep + 1))};
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
     public Page<AppointmentDTO> findByDoctorIdAndStatusBetween(String doctorId, AppointmentStatus status, Instant from, Instant to, int page, int size){
         Pageable pageable = PageRequest.of(page,size);
         Page<Appointment> appointmentPage = appointmentRepository.findByDoctorIdAndStatusBetween(doctorId, status, from, to, pageable);
@@ -164,6 +485,10 @@ public class AppointmentService {
     }
 
     public AppointmentDTO attended(String appointmentId, User user){
+        return optimisticRetry.run("Appointment " + appointmentId, () -> attendedOnce(appointmentId, user));
+    }
+
+    private AppointmentDTO attendedOnce(String appointmentId, User user){
         Appointment appointment = appointmentRepository.findById(appointmentId).orElseThrow(()-> new NotFoundException("Appointment not found with id:"+ appointmentId));
 
         if(appointment.getStatus() == AppointmentStatus.CANCELLED) {
@@ -197,56 +522,19 @@ public class AppointmentService {
         if (appointment.getStart() == null || appointment.getEnd() == null || !appointment.getEnd().isAfter(appointment.getStart()) || !appointment.getStart().isBefore(appointment.getEnd())) {
             throw new OurException("Invalid start/end.");
         }
-    }
-
-    public void ensureWithinAvailability(Appointment appointment) {
-        // Convert start to UK local date/time
-        ZonedDateTime startUK = appointment.getStart().atZone(UK_TZ);
-        int isoDow = startUK.getDayOfWeek().getValue(); // 1..7
-
-        AvailabilityRule rule = availabilityRuleRepository
-                .findByDoctorIdAndDayOfWeek(appointment.getDoctorId(), isoDow)
-                .orElseThrow(()-> new OurException("No availability for this day (doctorId=" + appointment.getDoctorId() +
-                        ", day=" + isoDow + ")."));
-
-        LocalTime startLocal = startUK.toLocalTime();
-        LocalTime endLocal = appointment.getEnd().atZone(UK_TZ).toLocalTime();
-
-        // Slot-size enforcement (optional, only if set)
-        if (rule.getSlotMinutes() > 0) {
-            long minutes = Duration.between(appointment.getStart(), appointment.getEnd()).toMinutes();
-            if(minutes % rule.getSlotMinutes() != 0) {
-                throw new OurException("Duration must be multiple of slotMinutes=" + rule.getSlotMinutes());
-            }
-        }
-    }
-
-    private void ensureNotDuringTimeOff(Appointment appointment){
-        List<TimeOff> offs = timeOffRepository
-                .findByDoctorIdAndStartLessThanEqualAndEndGreaterThanEqual(
-                        appointment.getDoctorId(), appointment.getEnd(), appointment.getStart());
-
-        if(!offs.isEmpty()) {
-            throw new OurException("Doctor is unavailable (time-off) during the requested period.");
-        }
-    }
-
-    public void ensureNoOverlap(Appointment appointment) {
-        // Any appointment that starts before new end AND ends after new start is an overlap
-        List<Appointment> overlaps = appointmentRepository
-                .findByDoctorIdAndStartLessThanAndEndGreaterThan(appointment.getDoctorId(), appointment.getEnd(), appointment.getStart());
-        // Allow same doc/time only if system updates the exact same record
-        boolean conflict = overlaps.stream()
-                .anyMatch(existing -> !existing.getId().equals(appointment.getId()) &&
-                        existing.getStatus() != AppointmentStatus.CANCELLED);
-
-        if(conflict) {
-            throw new OurException("Overlapping appointment for this doctor with ID " + appointment.getDoctorId());
+        // Slot claims are 5-minute granules; an unaligned edge would claim, and block, the whole granule around it
+        if (!SlotClaimService.isAligned(appointment.getStart()) || !SlotClaimService.isAligned(appointment.getEnd())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "start and end must fall on a " + SlotClaimService.GRANULE_MILLIS / 60_000 + "-minute boundary.");
         }
     }
 
-    public void ensureNoOverlapForRescheduling(Appointment appointment) {
-        ensureNoOverlap(appointment);
+    /**
+     * Rules and time-off for the doctor from the in-process caches, so validating a booking needs no DB call
+     * unless an entry is missing or stale.
+     */
+    public DoctorDaySnapshot snapshot(String doctorId) {
+        return new DoctorDaySnapshot(doctorId, availabilityCache.get(doctorId), timeOffIndex.snapshot(doctorId));
     }
 
 }
@@ -0,0 +1,61 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.repository.AvailabilityRuleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-process cache of compiled {@link WeeklyAvailability} per doctor.
+ * Invalidated locally by {@link AvailabilityRuleService#upsert}; entries are also recompiled after
+ * a few minutes so rule changes made on another node are picked up.
+ * Bounded to the most recently used doctors. Invalidation bumps a per-doctor version stripe, as in
+ * {@link TimeOffIndex}; a load that started before the bump is used for that one read but not stored.
+ */
+@Component
+@RequiredArgsConstructor
+public class AvailabilityCache {
+
+    private static final int MAX_DOCTORS = 10_000;
+    private static final long MAX_AGE_MILLIS = 5 * 60 * 1000L;
+    private static final int VERSION_STRIPES = 1024;
+
+    private final AvailabilityRuleRepository availabilityRuleRepository;
+
+    private final Map<String, WeeklyAvailability> byDoctor = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, WeeklyAvailability> eldest) {
+                    return size() > MAX_DOCTORS;
+                }
+            });
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    public WeeklyAvailability get(String doctorId) {
+        WeeklyAvailability week = byDoctor.get(doctorId);
+        if (week == null || week.isOlderThan(MAX_AGE_MILLIS)) {
+            long version = versions.get(stripe(doctorId));
+            week = WeeklyAvailability.compile(availabilityRuleRepository.findByDoctorId(doctorId));
+            synchronized (byDoctor) {
+                // Skip storing if the rules changed while we were loading
+                if (versions.get(stripe(doctorId)) == version) byDoctor.put(doctorId, week);
+            }
+        }
+        return week;
+    }
+
+    public void invalidate(String doctorId) {
+        synchronized (byDoctor) {
+            versions.incrementAndGet(stripe(doctorId));
+            byDoctor.remove(doctorId);
+        }
+    }
+
+    private static int stripe(String doctorId) {
+        return (doctorId.hashCode() & 0x7fffffff) % VERSION_STRIPES;
+    }
+}
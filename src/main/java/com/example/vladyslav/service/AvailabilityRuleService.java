@@ -2,6 +2,7 @@ package com.example.vladyslav.service;
 
 import com.example.vladyslav.exception.OurException;
 import com.example.vladyslav.model.AvailabilityRule;
+import com.example.vladyslav.model.Window;
 import com.example.vladyslav.repository.AvailabilityRuleRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -14,6 +15,7 @@ import java.util.List;
 public class AvailabilityRuleService {
 
     private final AvailabilityRuleRepository repository;
+    private final AvailabilityCache availabilityCache;
 
     public List<AvailabilityRule> list (String doctorId) {
         return repository.findByDoctorId(doctorId);
@@ -22,16 +24,26 @@ public class AvailabilityRuleService {
     public AvailabilityRule upsert(AvailabilityRule rule) {
         validate(rule);
 
-        return repository.findByDoctorIdAndDayOfWeek(rule.getDoctorId(), rule.getDayOfWeek())
+        AvailabilityRule saved = repository.findByDoctorIdAndDayOfWeek(rule.getDoctorId(), rule.getDayOfWeek())
                 .map(existing -> {
                     existing.setStart(rule.getStart());
                     existing.setEnd(rule.getEnd());
                     existing.setSlotMinutes(rule.getSlotMinutes());
                     existing.setBufferBeforeMinutes(rule.getBufferBeforeMinutes());
                     existing.setBufferAfterMinutes(rule.getBufferAfterMinutes());
+                    existing.setBreaks(rule.getBreaks());
                     return repository.save(existing);
                 })
                 .orElseGet(()-> repository.save(rule));
+
+        availabilityCache.invalidate(rule.getDoctorId());
+        return saved;
+    }
+
+    private static final int UNIT = WeeklyAvailability.UNIT_MINUTES;
+
+    private static boolean aligned(LocalTime time) {
+        return time.getSecond() == 0 && time.getNano() == 0 && time.getMinute() % UNIT == 0;
     }
 
     private void validate(AvailabilityRule rule){
@@ -41,5 +53,23 @@ public class AvailabilityRuleService {
         LocalTime s = rule.getStart(), e = rule.getEnd();
         if(s == null || e == null || !e.isAfter(s)) throw new OurException("Invalid start/end for availability.");
         if(rule.getSlotMinutes() < 0) throw new OurException("slotMinutes cannot be negative.");
+        if(rule.getBufferBeforeMinutes() < 0 || rule.getBufferAfterMinutes() < 0) throw new OurException("Buffers cannot be negative.");
+
+        // Bookings are claimed in 5-minute granules, so every slot the rule produces must start and end on one
+        if(!aligned(s) || !aligned(e)) throw new OurException("start/end must fall on a " + UNIT + "-minute boundary.");
+        if(rule.getSlotMinutes() % UNIT != 0 || rule.getBufferBeforeMinutes() % UNIT != 0 || rule.getBufferAfterMinutes() % UNIT != 0) {
+            throw new OurException("slotMinutes and buffers must be multiples of " + UNIT + " minutes.");
+        }
+
+        if(rule.getBreaks() != null) {
+            for (Window w : rule.getBreaks()) {
+                if (w == null || w.getStartBreak() == null || w.getEndBreak() == null || !w.getEndBreak().isAfter(w.getStartBreak())) {
+                    throw new OurException("Invalid start/end for break.");
+                }
+                if (!aligned(w.getStartBreak()) || !aligned(w.getEndBreak())) {
+                    throw new OurException("Break start/end must fall on a " + UNIT + "-minute boundary.");
+                }
+            }
+        }
     }
 }
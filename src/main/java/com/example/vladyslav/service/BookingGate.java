@@ -0,0 +1,188 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.dto.BookingQueueStatsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serialized booking mode for flash releases, enabled with {@code app.booking.serialized=true}.
+ * <p>
+ * Writes for the same doctor run one at a time behind a striped lock, and every granule this node has
+ * booked or held is kept in an in-memory occupancy view. A request for
+ * a taken granule is turned away from that view before any DB work, both on arrival and again once it holds
+ * the lock, so of hundreds of requests for one slot only the first reaches Mongo.
+ * <p>
+ * The view only speeds up rejections; slot claims stay the source of truth. Entries expire after
+ * {@code app.booking.occupancy-ttl-seconds}, so a slot freed on another node is bookable here again after at
+ * most that long. Slots freed on this node are removed straight away.
+ */
+@Component
+public class BookingGate {
+
+    private final boolean enabled;
+    private final int maxQueuePerStripe;
+    private final long lockTimeoutMillis;
+    private final long occupancyTtlMillis;
+
+    private final ReentrantLock[] locks;
+    private final AtomicInteger[] waiting;
+    private final Map<String, Map<Long, Long>> occupancy = new ConcurrentHashMap<>();
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejectedOccupied = new AtomicLong();
+    private final AtomicLong rejectedQueueFull = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    public BookingGate(@Value("${app.booking.serialized:false}") boolean enabled,
+                       @Value("${app.booking.lock-stripes:256}") int stripes,
+                       @Value("${app.booking.max-queue:64}") int maxQueuePerStripe,
+                       @Value("${app.booking.lock-timeout-ms:2000}") long lockTimeoutMillis,
+                       @Value("${app.booking.occupancy-ttl-seconds:60}") long occupancyTtlSeconds) {
+        this.enabled = enabled;
+        this.maxQueuePerStripe = maxQueuePerStripe;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.occupancyTtlMillis = occupancyTtlSeconds * 1000;
+        this.locks = new ReentrantLock[stripes];
+        this.waiting = new AtomicInteger[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock(true);
+            waiting[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Runs a write that takes [start, end) for the doctor. With the mode off this just calls {@code write}.
+     *
+     * @param takenUntil when the write's hold on the slot lapses, or null for a booking
+     */
+    public <T> T run(String doctorId, Instant start, Instant end, Instant takenUntil, Supplier<T> write) {
+        if (!enabled) return write.get();
+
+        long[] granules = granules(start, end);
+        rejectIfTaken(doctorId, granules);
+
+        int stripe = stripe(doctorId);
+        int depth = waiting[stripe].incrementAndGet();
+        if (depth > maxQueuePerStripe) {
+            waiting[stripe].decrementAndGet();
+            rejectedQueueFull.incrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many bookings in progress for this doctor, please retry.");
+        }
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+
+        ReentrantLock lock = locks[stripe];
+        boolean locked;
+        try {
+            locked = lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Booking interrupted, please retry.");
+        } finally {
+            waiting[stripe].decrementAndGet();
+        }
+        if (!locked) {
+            timedOut.incrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Booking queue is busy, please retry.");
+        }
+
+        try {
+            // Whoever held the lock before us may have taken the slot
+            rejectIfTaken(doctorId, granules);
+            admitted.incrementAndGet();
+            T result;
+            try {
+                result = write.get();
+            } catch (ResponseStatusException e) {
+                // The claim index does not say which granule collided, so nothing is marked: marking the whole
+                // request would turn away free neighbours of the one taken granule
+                if (e.getStatusCode().value() == HttpStatus.CONFLICT.value()) conflicts.incrementAndGet();
+                throw e;
+            }
+            markTaken(doctorId, granules, takenUntil);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets [start, end) for the doctor after a cancel, a released hold or a reschedule away from it.
+     */
+    public void released(String doctorId, Instant start, Instant end) {
+        if (!enabled) return;
+        Map<Long, Long> taken = occupancy.get(doctorId);
+        if (taken == null) return;
+        for (long g : granules(start, end)) taken.remove(g);
+    }
+
+    public BookingQueueStatsDTO stats() {
+        int depth = 0;
+        for (AtomicInteger w : waiting) depth += w.get();
+        return BookingQueueStatsDTO.builder()
+                .enabled(enabled)
+                .queueDepth(depth)
+                .maxQueueDepth(maxQueueDepth.get())
+                .admitted(admitted.get())
+                .rejectedOccupied(rejectedOccupied.get())
+                .rejectedQueueFull(rejectedQueueFull.get())
+                .timedOut(timedOut.get())
+                .conflicts(conflicts.get())
+                .trackedDoctors(occupancy.size())
+                .build();
+    }
+
+    private void rejectIfTaken(String doctorId, long[] granules) {
+        Map<Long, Long> taken = occupancy.get(doctorId);
+        if (taken == null) return;
+        long now = System.currentTimeMillis();
+        for (long g : granules) {
+            Long until = taken.get(g);
+            if (until != null && until > now) {
+                rejectedOccupied.incrementAndGet();
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Requested time is already booked for this doctor.");
+            }
+        }
+    }
+
+    // Called with the doctor's stripe locked
+    private void markTaken(String doctorId, long[] granules, Instant takenUntil) {
+        long now = System.currentTimeMillis();
+        long until = now + occupancyTtlMillis;
+        if (takenUntil != null) until = Math.min(until, takenUntil.toEpochMilli());
+
+        Map<Long, Long> taken = occupancy.computeIfAbsent(doctorId, id -> new ConcurrentHashMap<>());
+        for (Iterator<Long> it = taken.values().iterator(); it.hasNext(); ) {
+            if (it.next() <= now) it.remove();
+        }
+        for (long g : granules) taken.put(g, until);
+    }
+
+    /**
+     * Same 5-minute granules as {@link SlotClaimService}, so the view and the claim index agree on overlap
+     */
+    private static long[] granules(Instant start, Instant end) {
+        long g = Math.floorDiv(start.toEpochMilli(), SlotClaimService.GRANULE_MILLIS) * SlotClaimService.GRANULE_MILLIS;
+        long to = end.toEpochMilli();
+        long[] result = new long[(int) Math.max(0, (to - g + SlotClaimService.GRANULE_MILLIS - 1) / SlotClaimService.GRANULE_MILLIS)];
+        for (int i = 0; i < result.length; i++, g += SlotClaimService.GRANULE_MILLIS) result[i] = g;
+        return result;
+    }
+
+    private int stripe(String doctorId) {
+        return (doctorId.hashCode() & 0x7fffffff) % locks.length;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.dto.BoardRowDTO;
+import com.example.vladyslav.dto.ClinicBoardDTO;
+import com.example.vladyslav.exception.NotFoundException;
+import com.example.vladyslav.model.Appointment;
+import com.example.vladyslav.model.AvailabilityRule;
+import com.example.vladyslav.model.DoctorSearchView;
+import com.example.vladyslav.model.SlotHold;
+import com.example.vladyslav.model.TimeOff;
+import com.example.vladyslav.model.enums.AppointmentStatus;
+import com.example.vladyslav.repository.AppointmentRepository;
+import com.example.vladyslav.repository.AvailabilityRuleRepository;
+import com.example.vladyslav.repository.ClinicRepository;
+import com.example.vladyslav.repository.DoctorSearchRepository;
+import com.example.vladyslav.repository.SlotHoldRepository;
+import com.example.vladyslav.repository.TimeOffRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static com.example.vladyslav.service.SlotEngine.UK_TZ;
+
+/**
+ * Day board for clinic reception screens: every doctor in a clinic with the state of each of their slots.
+ * <p>
+ * A board costs a fixed six queries however many doctors the clinic has: the clinic, its doctors from the
+ * doctor_search view, then rules, time-off, appointments and live holds with one $in each. The grid is built in
+ * memory by {@link SlotEngine}. Many screens poll the same board, so each one is kept for a few seconds and
+ * the screens share it.
+ */
+@Service
+public class ClinicBoardService {
+
+    private static final int MAX_BOARD_DAYS = 7;
+    private static final int MAX_BOARDS = 500;
+
+    private final ClinicRepository clinicRepository;
+    private final DoctorSearchRepository doctorSearchRepository;
+    private final AvailabilityRuleRepository availabilityRuleRepository;
+    private final TimeOffRepository timeOffRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final SlotHoldRepository slotHoldRepository;
+    private final AppointmentSeriesService appointmentSeriesService;
+    private final long maxAgeMillis;
+
+    private final Map<String, ClinicBoardDTO> boards = new ConcurrentHashMap<>();
+
+    public ClinicBoardService(ClinicRepository clinicRepository,
+                              DoctorSearchRepository doctorSearchRepository,
+                              AvailabilityRuleRepository availabilityRuleRepository,
+                              TimeOffRepository timeOffRepository,
+                              AppointmentRepository appointmentRepository,
+                              SlotHoldRepository slotHoldRepository,
+                              AppointmentSeriesService appointmentSeriesService,
+                              @Value("${app.board.max-age-ms:5000}") long maxAgeMillis) {
+        this.clinicRepository = clinicRepository;
+        this.doctorSearchRepository = doctorSearchRepository;
+        this.availabilityRuleRepository = availabilityRuleRepository;
+        this.timeOffRepository = timeOffRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.slotHoldRepository = slotHoldRepository;
+        this.appointmentSeriesService = appointmentSeriesService;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * @param from first day, defaults to today
+     * @param to   last day, defaults to from
+     */
+    public ClinicBoardDTO getBoard(String clinicId, LocalDate from, LocalDate to) {
+        LocalDate first = from != null ? from : LocalDate.now(UK_TZ);
+        LocalDate last = to != null ? to : first;
+        if (last.isBefore(first)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(first, last) >= MAX_BOARD_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Board range cannot exceed " + MAX_BOARD_DAYS + " days");
+        }
+
+        String key = clinicId + '|' + first + '|' + last;
+        ClinicBoardDTO board = boards.get(key);
+        Instant now = Instant.now();
+        if (board != null && Duration.between(board.getGeneratedAt(), now).toMillis() <= maxAgeMillis) {
+            return board;
+        }
+
+        board = build(clinicId, first, last, now);
+        if (boards.size() >= MAX_BOARDS) {
+            boards.values().removeIf(b -> Duration.between(b.getGeneratedAt(), now).toMillis() > maxAgeMillis);
+            if (boards.size() >= MAX_BOARDS) boards.clear();
+        }
+        boards.put(key, board);
+        return board;
+    }
+
+    private ClinicBoardDTO build(String clinicId, LocalDate first, LocalDate last, Instant now) {
+        if (!clinicRepository.existsById(clinicId)) {
+            throw new NotFoundException("Clinic not found with id " + clinicId);
+        }
+
+        List<DoctorSearchView> doctors = doctorSearchRepository.findByClinicIdOrderByLastNameAscFirstNameAsc(clinicId);
+        List<BoardRowDTO> rows = new ArrayList<>(doctors.size());
+        if (!doctors.isEmpty()) {
+            List<String> doctorIds = doctors.stream().map(DoctorSearchView::getId).toList();
+            Instant rangeStart = first.atStartOfDay(UK_TZ).toInstant();
+            Instant rangeEnd = last.plusDays(1).atStartOfDay(UK_TZ).toInstant();
+
+            Map<String, List<AvailabilityRule>> rules = availabilityRuleRepository.findByDoctorIdIn(doctorIds).stream()
+                    .collect(Collectors.groupingBy(AvailabilityRule::getDoctorId));
+            Map<String, List<TimeOff>> offs = timeOffRepository
+                    .findByDoctorIdInAndStartLessThanAndEndGreaterThan(doctorIds, rangeEnd, rangeStart).stream()
+                    .collect(Collectors.groupingBy(TimeOff::getDoctorId));
+            Map<String, List<Appointment>> booked = appointmentRepository
+                    .findByDoctorIdInAndStatusNotAndStartLessThanAndEndGreaterThan(doctorIds, AppointmentStatus.CANCELLED, rangeEnd, rangeStart).stream()
+                    .collect(Collectors.groupingBy(Appointment::getDoctorId));
+            appointmentSeriesService.pendingOccurrences(doctorIds, rangeStart, rangeEnd)
+                    .forEach((id, pending) -> booked.computeIfAbsent(id, k -> new ArrayList<>()).addAll(pending));
+            Map<String, List<SlotHold>> held = slotHoldRepository
+                    .findByDoctorIdInAndStartLessThanAndEndGreaterThanAndExpiresAtAfter(doctorIds, rangeEnd, rangeStart, now).stream()
+                    .collect(Collectors.groupingBy(SlotHold::getDoctorId));
+
+            for (DoctorSearchView doctor : doctors) {
+                String id = doctor.getId();
+                rows.add(row(doctor,
+                        rules.getOrDefault(id, List.of()),
+                        SlotService.timeOffIntervals(offs.getOrDefault(id, List.of())),
+                        SlotService.appointmentIntervals(booked.getOrDefault(id, List.of())),
+                        SlotService.holdIntervals(held.getOrDefault(id, List.of())),
+                        first, last));
+            }
+        }
+
+        return ClinicBoardDTO.builder()
+                .clinicId(clinicId)
+                .from(first)
+                .to(last)
+                .generatedAt(now)
+                .doctors(rows)
+                .build();
+    }
+
+    private static BoardRowDTO row(DoctorSearchView doctor, List<AvailabilityRule> rules,
+                                   IntervalSet timeOff, IntervalSet booked, IntervalSet held,
+                                   LocalDate first, LocalDate last) {
+        List<Instant> starts = new ArrayList<>();
+        List<Integer> minutes = new ArrayList<>();
+        StringBuilder states = new StringBuilder();
+
+        SlotEngine.expand(rules, timeOff, booked, held, first, last, (start, end, state) -> {
+            starts.add(start);
+            minutes.add((int) Duration.between(start, end).toMinutes());
+            states.append(code(state));
+            return true;
+        });
+
+        return BoardRowDTO.builder()
+                .doctorId(doctor.getId())
+                .firstName(doctor.getFirstName())
+                .lastName(doctor.getLastName())
+                .starts(starts)
+                .minutes(minutes)
+                .states(states.toString())
+                .build();
+    }
+
+    private static char code(SlotEngine.SlotState state) {
+        return switch (state) {
+            case FREE -> 'F';
+            case BOOKED -> 'B';
+            case HELD -> 'H';
+            case TIME_OFF -> 'O';
+        };
+    }
+}
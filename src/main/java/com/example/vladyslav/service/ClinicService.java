@@ -7,6 +7,7 @@ import com.example.vladyslav.exception.NotFoundException;
 import com.example.vladyslav.exception.OurException;
 import com.example.vladyslav.model.Clinic;
 import com.example.vladyslav.model.Doctor;
+import com.example.vladyslav.model.DoctorSearchView;
 import com.example.vladyslav.model.Review;
 import com.example.vladyslav.model.User;
 import com.example.vladyslav.model.enums.Role;
@@ -22,13 +23,19 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.geo.Distance;
 import org.springframework.data.geo.Metrics;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -49,6 +56,14 @@ public class ClinicService {
 
     private final GeocodingService geocodingService;
 
+    private final DoctorSearchIndexer doctorSearchIndexer;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final DoctorCache doctorCache;
+
+    private final RatingService ratingService;
+
 
     /**
      * Register new Clinic
@@ -98,7 +113,8 @@ public class ClinicService {
             clinic.setLocation(location);
         }
 
-        clinicRepository.save(clinic);
+        // insert, not save: a new clinic must never replace a stored one and its rating rollup
+        clinicRepository.insert(clinic);
 
         return toDTO(clinic);
 
@@ -217,7 +233,16 @@ public class ClinicService {
      * @param clinicId
      */
     public void deleteClinic(String clinicId){
+        Query atClinic = Query.query(Criteria.where("clinicId").is(clinicId));
+        atClinic.fields().include("_id");
+        List<String> doctorIds = mongoTemplate.find(atClinic, DoctorSearchView.class).stream()
+                .map(DoctorSearchView::getId)
+                .toList();
+
         clinicRepository.deleteById(clinicId);
+        doctorSearchIndexer.removeClinic(clinicId);
+        // Cached profiles still carry the clinic's name and city
+        doctorIds.forEach(doctorCache::invalidate);
     }
 
     /**
@@ -241,11 +266,25 @@ public class ClinicService {
         Clinic clinic = clinicRepository.findById(clinicId)
                 .orElseThrow(()-> new NotFoundException("Clinic not found with id:" + clinicId));
 
-        Doctor doctor = doctorRepository.findById(doctorId)
-                .orElseThrow(()-> new NotFoundException("Doctor not found with id: " + doctorId));
+        // Targeted $set: a full save would overwrite rating aggregates updated by concurrent reviews.
+        // The document from just before the switch carries the previous clinic and exactly the totals credited
+        // to it; reviews landing after the switch already go to the new clinic.
+        Doctor before = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(doctorId)),
+                new Update()
+                        .set("clinic", clinic)
+                        .set("location", clinic.getLocation())
+                        .set("updatedAt", Instant.now()),
+                FindAndModifyOptions.options().returnNew(false),
+                Doctor.class);
+        if (before == null) {
+            throw new NotFoundException("Doctor not found with id: " + doctorId);
+        }
 
-        doctor.setClinic(clinic);
-        doctorRepository.save(doctor);
+        String previousClinicId = before.getClinic() != null ? before.getClinic().getId() : null;
+        ratingService.doctorMoved(before, previousClinicId, clinicId);
+        doctorSearchIndexer.syncDoctorClinic(doctorId, clinic);
+        doctorCache.invalidate(doctorId);
     }
 
 
@@ -267,6 +306,8 @@ public class ClinicService {
 //                        clinic.getReviews().stream()
 //                                .map(this::toReviewDTO).collect(Collectors.toList()))
                 .averageRating(clinic.getAverageRating())
+                .ratingCount(clinic.getRatingCount())
+                .ratingHistogram(clinic.getRatingHistogram())
                 .createdAt(clinic.getCreatedAt())
                 .updatedAt(clinic.getUpdatedAt())
                 .latitude(clinic.getLocation() != null ? clinic.getLocation().getY() : null)
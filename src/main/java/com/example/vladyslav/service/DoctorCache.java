@@ -0,0 +1,244 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.dto.CacheStatsDTO;
+import com.example.vladyslav.dto.DoctorDTO;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded in-process cache of fully assembled {@link DoctorDTO}s for profile reads.
+ * <p>
+ * Entries expire after a TTL and the least recently used one is the eviction candidate when full.
+ * A new entry only replaces it if a frequency sketch (TinyLFU) has seen the new key more often,
+ * so one-off lookups do not flush popular profiles.
+ * <p>
+ * Writers call {@link #invalidate}, which also bumps a version stripe; a load that started before the
+ * invalidation is then not stored, so a slow reader cannot put back the old profile.
+ * An optional {@link DoctorCacheTier} bean is used as a shared second level between nodes. Invalidation only
+ * reaches this node's first level and the shared tier, so with a tier configured the first level keeps entries
+ * for {@code app.cache.doctor.local-ttl-seconds} (default 5s) at most: that is how long another node can keep
+ * serving a profile after it was edited here. Without a tier there is one node and no such staleness.
+ * <p>
+ * DTOs are mutable, so the cache keeps its own copy and hands each caller a fresh one; a caller that edits
+ * what it got back cannot change what the next reader sees.
+ */
+@Component
+public class DoctorCache {
+
+    private static final int VERSION_STRIPES = 1024;
+    private static final long DEFAULT_LOCAL_TTL_SECONDS = 5;
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final long localTtlMillis;
+    private final DoctorCacheTier secondTier;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong secondTierHits = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public DoctorCache(@Value("${app.cache.doctor.max-size:10000}") int maxSize,
+                       @Value("${app.cache.doctor.ttl-seconds:300}") long ttlSeconds,
+                       @Value("${app.cache.doctor.local-ttl-seconds:" + DEFAULT_LOCAL_TTL_SECONDS + "}") long localTtlSeconds,
+                       ObjectProvider<DoctorCacheTier> secondTier) {
+        this(maxSize, ttlSeconds, localTtlSeconds, secondTier.getIfAvailable());
+    }
+
+    DoctorCache(int maxSize, long ttlSeconds, DoctorCacheTier secondTier) {
+        this(maxSize, ttlSeconds, DEFAULT_LOCAL_TTL_SECONDS, secondTier);
+    }
+
+    /**
+     * @param localTtlSeconds first-level TTL when a second tier is present, capped at ttlSeconds
+     */
+    DoctorCache(int maxSize, long ttlSeconds, long localTtlSeconds, DoctorCacheTier secondTier) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.localTtlMillis = secondTier != null ? Math.min(ttlSeconds, localTtlSeconds) * 1000 : ttlMillis;
+        this.secondTier = secondTier;
+        this.sketch = new FrequencySketch(maxSize);
+    }
+
+    public DoctorDTO get(String doctorId, Supplier<DoctorDTO> loader) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            sketch.increment(doctorId);
+            Entry entry = entries.get(doctorId);
+            if (entry != null) {
+                if (entry.expiresAt > now) {
+                    hits.incrementAndGet();
+                    return copyOf(entry.value);
+                }
+                entries.remove(doctorId);
+                expirations.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+
+        long version = versions.get(stripe(doctorId));
+        DoctorDTO value = secondTier != null ? secondTier.get(doctorId) : null;
+        if (value != null) {
+            secondTierHits.incrementAndGet();
+        } else {
+            value = loader.get();
+            if (secondTier != null && versions.get(stripe(doctorId)) == version) {
+                secondTier.put(doctorId, value, ttlMillis / 1000);
+            }
+        }
+
+        synchronized (this) {
+            // Skip storing if a writer invalidated this key while we were loading
+            if (versions.get(stripe(doctorId)) == version) admit(doctorId, new Entry(copyOf(value), now + localTtlMillis));
+        }
+        return value;
+    }
+
+    public void invalidate(String doctorId) {
+        versions.incrementAndGet(stripe(doctorId));
+        synchronized (this) {
+            if (entries.remove(doctorId) != null) invalidations.incrementAndGet();
+        }
+        if (secondTier != null) secondTier.evict(doctorId);
+    }
+
+    public synchronized CacheStatsDTO stats() {
+        long h = hits.get();
+        long m = misses.get();
+        return CacheStatsDTO.builder()
+                .size(entries.size())
+                .maxSize(maxSize)
+                .hits(h)
+                .misses(m)
+                .hitRate(h + m == 0 ? 0 : (double) h / (h + m))
+                .secondTierHits(secondTierHits.get())
+                .evictions(evictions.get())
+                .expirations(expirations.get())
+                .rejections(rejections.get())
+                .invalidations(invalidations.get())
+                .build();
+    }
+
+    // Called with the monitor held
+    private void admit(String key, Entry entry) {
+        if (entries.containsKey(key) || entries.size() < maxSize) {
+            entries.put(key, entry);
+            return;
+        }
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        Map.Entry<String, Entry> victim = eldest.next();
+        if (victim.getValue().expiresAt <= System.currentTimeMillis()) {
+            eldest.remove();
+            expirations.incrementAndGet();
+        } else if (sketch.frequency(key) > sketch.frequency(victim.getKey())) {
+            eldest.remove();
+            evictions.incrementAndGet();
+        } else {
+            rejections.incrementAndGet();
+            return;
+        }
+        entries.put(key, entry);
+    }
+
+    /**
+     * Copies the DTO and its collections; nested reviews are copied too, other elements are immutable
+     */
+    static DoctorDTO copyOf(DoctorDTO doctor) {
+        if (doctor == null) return null;
+        return doctor.toBuilder()
+                .ratingHistogram(doctor.getRatingHistogram() != null ? new LinkedHashMap<>(doctor.getRatingHistogram()) : null)
+                .latestReviews(doctor.getLatestReviews() != null
+                        ? doctor.getLatestReviews().stream().map(r -> r.toBuilder().build()).collect(Collectors.toCollection(ArrayList::new))
+                        : null)
+                .languages(doctor.getLanguages() != null ? new ArrayList<>(doctor.getLanguages()) : null)
+                .build();
+    }
+
+    private static int stripe(String key) {
+        return (key.hashCode() & 0x7fffffff) % VERSION_STRIPES;
+    }
+
+    private static final class Entry {
+        private final DoctorDTO value;
+        private final long expiresAt;
+
+        private Entry(DoctorDTO value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Count-min sketch of access frequency with four rows of small counters. All counters are halved
+     * after a sample period so the estimate follows recent popularity instead of all-time totals.
+     */
+    static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private final int[][] counts;
+        private final int mask;
+        private final int samplePeriod;
+        private int additions;
+
+        FrequencySketch(int maxSize) {
+            int width = Integer.highestOneBit(Math.max(16, maxSize) * 2 - 1);
+            this.counts = new int[DEPTH][width];
+            this.mask = width - 1;
+            this.samplePeriod = 10 * Math.max(16, maxSize);
+        }
+
+        void increment(String key) {
+            int hash = key.hashCode();
+            boolean added = false;
+            for (int i = 0; i < DEPTH; i++) {
+                int index = index(hash, i);
+                if (counts[i][index] < MAX_COUNT) {
+                    counts[i][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= samplePeriod) reset();
+        }
+
+        int frequency(String key) {
+            int hash = key.hashCode();
+            int min = MAX_COUNT;
+            for (int i = 0; i < DEPTH; i++) min = Math.min(min, counts[i][index(hash, i)]);
+            return min;
+        }
+
+        private int index(int hash, int row) {
+            int h = hash * SEEDS[row];
+            h ^= h >>> 16;
+            return h & mask;
+        }
+
+        private void reset() {
+            for (int[] row : counts) {
+                for (int j = 0; j < row.length; j++) row[j] >>>= 1;
+            }
+            additions /= 2;
+        }
+    }
+}
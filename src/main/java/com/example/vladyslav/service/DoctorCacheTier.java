@@ -0,0 +1,21 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.dto.DoctorDTO;
+
+/**
+ * Optional shared second level behind {@link DoctorCache}, e.g. a Redis-backed store for multi-node deployments.
+ * Not defined by default; {@link LocalDoctorCacheTier} is a single-node stand-in enabled with
+ * {@code app.cache.doctor.second-tier=local}, or declare a bean implementing this to plug in a shared store.
+ * Implementations must not hand out instances they keep, since callers may modify what they get.
+ */
+public interface DoctorCacheTier {
+
+    /**
+     * @return the cached profile, or null on a miss
+     */
+    DoctorDTO get(String doctorId);
+
+    void put(String doctorId, DoctorDTO doctor, long ttlSeconds);
+
+    void evict(String doctorId);
+}
@@ -0,0 +1,76 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.exception.OurException;
+import com.example.vladyslav.model.Appointment;
+import com.example.vladyslav.model.AvailabilityRule;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+
+import static com.example.vladyslav.service.SlotEngine.UK_TZ;
+
+/**
+ * Everything a booking needs to be validated in memory: the doctor's compiled weekly rules and their time-off.
+ * Taken once per booking, or once for a whole series, from {@link AvailabilityCache} and {@link TimeOffIndex},
+ * so the checks make no DB call while both are warm. Overlap with other bookings is not part of it; the slot
+ * claims decide that atomically on write.
+ */
+public final class DoctorDaySnapshot {
+
+    private final String doctorId;
+    private final WeeklyAvailability week;
+    private final TimeOffIndex.Entry timeOff;
+
+    DoctorDaySnapshot(String doctorId, WeeklyAvailability week, TimeOffIndex.Entry timeOff) {
+        this.doctorId = doctorId;
+        this.week = week;
+        this.timeOff = timeOff;
+    }
+
+    /**
+     * Rule, break and time-off checks together, as {@code createAppointment}, holds and reschedules need them
+     */
+    public void ensureBookable(Appointment appointment) {
+        ensureWithinAvailability(appointment);
+        if (duringTimeOff(appointment.getStart(), appointment.getEnd())) {
+            throw new OurException("Doctor is unavailable (time-off) during the requested period.");
+        }
+    }
+
+    /**
+     * Besides the slot-size multiple, the appointment plus the rule's buffers must lie inside working hours
+     * and outside breaks.
+     */
+    public void ensureWithinAvailability(Appointment appointment) {
+        // Convert start to UK local date/time
+        ZonedDateTime startUK = appointment.getStart().atZone(UK_TZ);
+        ZonedDateTime endUK = appointment.getEnd().atZone(UK_TZ);
+        int isoDow = startUK.getDayOfWeek().getValue(); // 1..7
+
+        AvailabilityRule rule = week.rule(isoDow);
+        if (rule == null) {
+            throw new OurException("No availability for this day (doctorId=" + doctorId + ", day=" + isoDow + ").");
+        }
+
+        // Slot-size enforcement (optional, only if set)
+        if (rule.getSlotMinutes() > 0) {
+            long minutes = Duration.between(appointment.getStart(), appointment.getEnd()).toMinutes();
+            if (minutes % rule.getSlotMinutes() != 0) {
+                throw new OurException("Duration must be multiple of slotMinutes=" + rule.getSlotMinutes());
+            }
+        }
+
+        if (!endUK.toLocalDate().equals(startUK.toLocalDate())
+                || !week.covers(isoDow, SlotEngine.minuteOfDay(startUK.toLocalTime()), SlotEngine.minuteOfDay(endUK.toLocalTime()))) {
+            throw new OurException("Requested time is outside the doctor's working hours or falls into a break.");
+        }
+    }
+
+    /**
+     * Same semantics as {@link TimeOffIndex#overlaps}: half-open, touching ranges do not overlap
+     */
+    public boolean duringTimeOff(Instant start, Instant end) {
+        return timeOff.overlaps(start.toEpochMilli(), end.toEpochMilli());
+    }
+}
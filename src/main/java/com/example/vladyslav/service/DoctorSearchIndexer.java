@@ -0,0 +1,296 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.model.Clinic;
+import com.example.vladyslav.model.Doctor;
+import com.example.vladyslav.model.DoctorSearchView;
+import com.example.vladyslav.model.Speciality;
+import com.example.vladyslav.repository.DoctorSearchRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the doctor_search read model in step with doctors, clinics and specialities.
+ * Every write path that changes a searchable field calls in here after saving.
+ */
+@Service
+@RequiredArgsConstructor
+public class DoctorSearchIndexer {
+
+    private static final int REBUILD_BATCH = 500;
+
+    /**
+     * Longest prefix stored per name; longer input is cut to this before matching
+     */
+    public static final int MAX_PREFIX = 20;
+
+    private static final Pattern FULL_POSTCODE_KEY = Pattern.compile("[A-Z0-9]{2,4}[0-9][A-Z]{2}");
+
+    private final DoctorSearchRepository doctorSearchRepository;
+    private final MongoTemplate mongoTemplate;
+
+    public void sync(Doctor doctor) {
+        doctorSearchRepository.save(toView(doctor));
+    }
+
+    /**
+     * Rewrites only the fields a profile edit can change. Ratings are left to {@link #syncRating} and the clinic
+     * to {@link #syncDoctorClinic}, so an edit racing a review cannot put back an older average.
+     */
+    public void syncProfile(Doctor doctor) {
+        Speciality speciality = doctor.getSpeciality();
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(doctor.getId())),
+                new Update()
+                        .set("firstName", doctor.getFirstName())
+                        .set("lastName", doctor.getLastName())
+                        .set("nameTokens", nameTokens(doctor.getFirstName(), doctor.getLastName()))
+                        .set("firstNameKey", normalize(doctor.getFirstName()))
+                        .set("lastNameKey", normalize(doctor.getLastName()))
+                        .set("specialityId", speciality != null ? speciality.getId() : null)
+                        .set("specialityTitle", speciality != null ? speciality.getTitle() : null)
+                        .set("phoneNumber", doctor.getPhoneNumber())
+                        .set("dateOfBirth", doctor.getDateOfBirth())
+                        .set("bio", doctor.getBio())
+                        .set("languages", doctor.getLanguages())
+                        .set("consultationFee", doctor.getConsultationFee())
+                        .set("appointmentTypes", doctor.getAppointmentTypes())
+                        .set("updatedAt", doctor.getUpdatedAt()),
+                DoctorSearchView.class);
+    }
+
+    public void syncClinic(Clinic clinic) {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("clinicId").is(clinic.getId())),
+                new Update()
+                        .set("clinicName", clinic.getName())
+                        .set("clinicCity", clinic.getCity())
+                        .set("clinicPostCode", clinic.getPostCode())
+                        .set("cityKey", cityKey(clinic.getCity()))
+                        .set("postCodeKey", postCodeKey(clinic.getPostCode()))
+                        .set("outwardCode", outwardCode(clinic.getPostCode()))
+                        .set("location", clinic.getLocation()),
+                DoctorSearchView.class);
+    }
+
+    /**
+     * Points one doctor's entry at a clinic without rewriting the rest of it (e.g. averageRating)
+     */
+    public void syncDoctorClinic(String doctorId, Clinic clinic) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(doctorId)),
+                new Update()
+                        .set("clinicId", clinic.getId())
+                        .set("clinicName", clinic.getName())
+                        .set("clinicCity", clinic.getCity())
+                        .set("clinicPostCode", clinic.getPostCode())
+                        .set("cityKey", cityKey(clinic.getCity()))
+                        .set("postCodeKey", postCodeKey(clinic.getPostCode()))
+                        .set("outwardCode", outwardCode(clinic.getPostCode()))
+                        .set("location", clinic.getLocation()),
+                DoctorSearchView.class);
+    }
+
+    public void removeClinic(String clinicId) {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("clinicId").is(clinicId)),
+                new Update()
+                        .unset("clinicId")
+                        .unset("clinicName")
+                        .unset("clinicCity")
+                        .unset("clinicPostCode")
+                        .unset("cityKey")
+                        .unset("postCodeKey")
+                        .unset("outwardCode")
+                        .unset("location"),
+                DoctorSearchView.class);
+    }
+
+    public void syncSpeciality(Speciality speciality) {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("specialityId").is(speciality.getId())),
+                new Update().set("specialityTitle", speciality.getTitle()),
+                DoctorSearchView.class);
+    }
+
+    public void syncRating(String doctorId, Float averageRating, int ratingCount, Map<String, Integer> ratingHistogram) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(doctorId)),
+                new Update()
+                        .set("averageRating", averageRating)
+                        .set("ratingCount", ratingCount)
+                        .set("ratingHistogram", ratingHistogram),
+                DoctorSearchView.class);
+    }
+
+    /**
+     * Rebuilds the whole read model from the doctors collection with batched upserts.
+     */
+    public void rebuildAll() {
+        List<DoctorSearchView> batch = new ArrayList<>(REBUILD_BATCH);
+        try (Stream<Doctor> doctors = mongoTemplate.stream(new Query(), Doctor.class)) {
+            doctors.forEach(doctor -> {
+                batch.add(toView(doctor));
+                if (batch.size() >= REBUILD_BATCH) {
+                    upsertAll(batch);
+                    batch.clear();
+                }
+            });
+        }
+        upsertAll(batch);
+    }
+
+    /**
+     * Builds the projection when it is empty or was written before a field it now carries,
+     * e.g. on first start after deploying it.
+     */
+    public void rebuildIfStale() {
+        if (mongoTemplate.estimatedCount(Doctor.class) == 0) return;
+        if (doctorSearchRepository.count() == 0
+                || mongoTemplate.exists(Query.query(Criteria.where("schemaVersion").ne(DoctorSearchView.SCHEMA_VERSION)), DoctorSearchView.class)) {
+            rebuildAll();
+        }
+    }
+
+    /**
+     * Lowercase with accents stripped and whitespace collapsed, so "  José " matches "jose".
+     */
+    public static String normalize(String text) {
+        if (text == null) return "";
+        String stripped = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    public static String emailKey(String email) {
+        return email == null || email.isBlank() ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The text with regex metacharacters backslash-escaped, unanchored and case-sensitive. Meant for the normalized
+     * keys: the query is normalized the same way instead of using the "i" flag (or \Q...\E), so Mongo filters the
+     * index keys rather than fetching every document.
+     */
+    public static String containing(String text) {
+        StringBuilder regex = new StringBuilder(text.length() + 8);
+        for (char ch : text.toCharArray()) {
+            if (!Character.isLetterOrDigit(ch) && ch != ' ') regex.append('\\');
+            regex.append(ch);
+        }
+        return regex.toString();
+    }
+
+    public static String cityKey(String city) {
+        String key = normalize(city);
+        return key.isEmpty() ? null : key;
+    }
+
+    /**
+     * Letters and digits only, upper case: "sw1a 1aa" and "SW1A1AA" give the same key
+     */
+    public static String postCodeKey(String postCode) {
+        if (postCode == null) return null;
+        String key = postCode.replaceAll("[^A-Za-z0-9]", "").toUpperCase(Locale.ROOT);
+        return key.isEmpty() ? null : key;
+    }
+
+    /**
+     * True when the key is a whole postcode rather than an outward code: the inward half is always a digit and
+     * two letters, and no outward code is longer than four characters
+     */
+    public static boolean isFullPostCode(String key) {
+        return key != null && FULL_POSTCODE_KEY.matcher(key).matches();
+    }
+
+    /**
+     * Outward half of a postcode ("SW1A" for "sw1a 1aa"); input that is already an outward code comes back as its key
+     */
+    public static String outwardCode(String postCode) {
+        String key = postCodeKey(postCode);
+        if (key == null) return null;
+        return isFullPostCode(key) ? key.substring(0, key.length() - 3) : key;
+    }
+
+    /**
+     * Edge n-grams of each name and of "first last", so one indexed equality match serves any typed prefix.
+     */
+    public static List<String> nameTokens(String firstName, String lastName) {
+        Set<String> tokens = new LinkedHashSet<>();
+        String first = normalize(firstName);
+        String last = normalize(lastName);
+        addPrefixes(tokens, first);
+        addPrefixes(tokens, last);
+        if (!first.isEmpty() && !last.isEmpty()) addPrefixes(tokens, first + " " + last);
+        return new ArrayList<>(tokens);
+    }
+
+    private static void addPrefixes(Set<String> tokens, String value) {
+        for (int i = 1; i <= Math.min(value.length(), MAX_PREFIX); i++) {
+            tokens.add(value.substring(0, i));
+        }
+    }
+
+    private void upsertAll(List<DoctorSearchView> views) {
+        if (views.isEmpty()) return;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DoctorSearchView.class);
+        for (DoctorSearchView view : views) {
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(view.getId())), view,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+
+    private DoctorSearchView toView(Doctor doctor) {
+        Speciality speciality = doctor.getSpeciality();
+        Clinic clinic = doctor.getClinic();
+
+        return DoctorSearchView.builder()
+                .id(doctor.getId())
+                .userId(doctor.getUser() != null ? doctor.getUser().getId() : null)
+                .firstName(doctor.getFirstName())
+                .lastName(doctor.getLastName())
+                .nameTokens(nameTokens(doctor.getFirstName(), doctor.getLastName()))
+                .firstNameKey(normalize(doctor.getFirstName()))
+                .lastNameKey(normalize(doctor.getLastName()))
+                .email(doctor.getEmail())
+                .emailKey(emailKey(doctor.getEmail()))
+                .specialityId(speciality != null ? speciality.getId() : null)
+                .specialityTitle(speciality != null ? speciality.getTitle() : null)
+                .clinicId(clinic != null ? clinic.getId() : null)
+                .clinicName(clinic != null ? clinic.getName() : null)
+                .clinicCity(clinic != null ? clinic.getCity() : null)
+                .clinicPostCode(clinic != null ? clinic.getPostCode() : null)
+                .cityKey(clinic != null ? cityKey(clinic.getCity()) : null)
+                .postCodeKey(clinic != null ? postCodeKey(clinic.getPostCode()) : null)
+                .outwardCode(clinic != null ? outwardCode(clinic.getPostCode()) : null)
+                .location(clinic != null ? clinic.getLocation() : doctor.getLocation())
+                .averageRating(doctor.getAverageRating())
+                .ratingCount(doctor.getRatingCount())
+                .ratingHistogram(doctor.getRatingHistogram() != null ? doctor.getRatingHistogram() : new HashMap<>())
+                .consultationFee(doctor.getConsultationFee())
+                .languages(doctor.getLanguages())
+                .appointmentTypes(doctor.getAppointmentTypes())
+                .phoneNumber(doctor.getPhoneNumber())
+                .dateOfBirth(doctor.getDateOfBirth())
+                .bio(doctor.getBio())
+                .imageUrl(doctor.getImageUrl())
+                .createdAt(doctor.getCreatedAt())
+                .updatedAt(doctor.getUpdatedAt())
+                .build();
+    }
+}
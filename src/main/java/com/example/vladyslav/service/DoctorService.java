@@ -2,9 +2,13 @@ package com.example.vladyslav.service;
 
 import com.example.vladyslav.awsS3.AwsS3Service;
 import com.example.vladyslav.dto.DoctorDTO;
+import com.example.vladyslav.dto.FacetCountDTO;
+import com.example.vladyslav.dto.FacetedDoctorSearchDTO;
 import com.example.vladyslav.dto.ReviewDTO;
 import com.example.vladyslav.exception.NotFoundException;
+import com.example.vladyslav.model.Clinic;
 import com.example.vladyslav.model.Doctor;
+import com.example.vladyslav.model.DoctorSearchView;
 import com.example.vladyslav.model.Speciality;
 import com.example.vladyslav.model.User;
 import com.example.vladyslav.model.enums.AppointmentType;
@@ -12,19 +16,29 @@ import com.example.vladyslav.model.enums.LanguageCode;
 import com.example.vladyslav.model.enums.Role;
 import com.example.vladyslav.repository.DoctorRepository;
 import com.example.vladyslav.repository.ReviewRepository;
-import com.example.vladyslav.repository.SpecialityRepository;
 import com.example.vladyslav.repository.UserRepository;
 import com.example.vladyslav.requests.DoctorRegisterRequest;
 import com.example.vladyslav.search.DoctorSearchCriteria;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -32,10 +46,14 @@ import org.springframework.web.server.ResponseStatusException;
 
 
 import java.awt.*;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -48,7 +66,7 @@ public class DoctorService {
     private UserRepository userRepository;
 
     @Autowired
-    private SpecialityRepository specialityRepository;
+    private SpecialityCatalogue specialityCatalogue;
 
     @Autowired
     private ReviewRepository reviewRepository;
@@ -62,13 +80,34 @@ public class DoctorService {
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Autowired
+    private DoctorSearchIndexer doctorSearchIndexer;
+
+    @Autowired
+    private SearchTotalsCache searchTotalsCache;
+
+    @Autowired
+    private DoctorCache doctorCache;
+
+    /**
+     * doctor_search fields counted per value in faceted search; array fields are unwound
+     */
+    @Value("${app.search.facets:specialityTitle,languages,appointmentTypes}")
+    private List<String> facetFields;
+
+    /**
+     * Lower bounds of the consultation fee buckets; fees above the last bound fall into "other"
+     */
+    @Value("${app.search.fee-buckets:0,50,100,150,200,300,500}")
+    private List<Integer> feeBuckets;
+
     public DoctorDTO createDoctor(DoctorRegisterRequest request) {
 
         // 1) Resolve Speciality if provided
 
 
         if (request.getSpecialityTitle() != null && !request.getSpecialityTitle().isBlank()) {
-                Speciality speciality = specialityRepository.findByTitle(request.getSpecialityTitle())
+                Speciality speciality = specialityCatalogue.byTitle(request.getSpecialityTitle())
                         .orElseThrow(()-> new NotFoundException("Speciality not found with title " + request.getSpecialityTitle()));}
 
 
@@ -107,7 +146,7 @@ public class DoctorService {
         // 3) Upload image to S3 and generate URL
         String imageUrl = awsS3Service.saveImageToS3(request.getImage());
 
-        Speciality speciality = specialityRepository.findByTitle(request.getSpecialityTitle()).orElseThrow(() -> new NotFoundException("Speciality not found by title " + request.getSpecialityTitle()));
+        Speciality speciality = specialityCatalogue.byTitle(request.getSpecialityTitle()).orElseThrow(() -> new NotFoundException("Speciality not found by title " + request.getSpecialityTitle()));
 
         // 4) Attach resolved speciality & user, then save doctor
         Doctor doctor = Doctor.builder()
@@ -126,13 +165,16 @@ public class DoctorService {
                 .build();
 
         doctorRepository.save(doctor);
+        doctorSearchIndexer.sync(doctor);
 
         return toDTO(doctor);
     }
 
     public DoctorDTO getDoctorById(String doctorId){
-        Doctor doctor = doctorRepository.findById(doctorId).orElseThrow(()-> new NotFoundException("Doctor not found for doctorId " + doctorId));
-        return toDTO(doctor);
+        return doctorCache.get(doctorId, () -> {
+            Doctor doctor = doctorRepository.findById(doctorId).orElseThrow(()-> new NotFoundException("Doctor not found for doctorId " + doctorId));
+            return toDTO(doctor);
+        });
     }
 
     public DoctorDTO findByEmail(String email){
@@ -147,42 +189,54 @@ public class DoctorService {
         final String trimmed = title.trim();
 
         // Resolve the Speciality by title first (avoid querying DBRef fields directly in Mongo)
-        Speciality speciality = specialityRepository.findByTitle(trimmed)
+        Speciality speciality = specialityCatalogue.byTitle(trimmed)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                         "Speciality not found for title: " + trimmed));
 
-        return doctorRepository
-                .findDoctorsBySpecialityId(speciality.getId(), p)
-                .map(this::toDTO);
+        return findDoctorsBySpecialityId(speciality.getId(), p);
     }
 
     public Page<DoctorDTO> findDoctorsBySpecialityId(String id, Pageable p){
-        return doctorRepository.findDoctorsBySpecialityId(id, p)
-                .map(this::toDTO);
+        return searchView(Query.query(Criteria.where("specialityId").is(id)), p);
     }
 
     public Page<DoctorDTO> getAllDoctors(int page, int size){
 
         Pageable pageable = PageRequest.of(page,size);
-        return doctorRepository.findAll(pageable).map(this::toDTO);
+        return searchView(new Query(), pageable);
     }
 
+    /**
+     * Doctors whose last name contains the given text, ignoring case and accents
+     */
     public Page<DoctorDTO> getDoctorByLastName(String lastName, int page, int size){
+        String key = DoctorSearchIndexer.normalize(lastName);
+        if (key.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lastName is required");
+        }
 
         Pageable pageable = PageRequest.of(page,size);
-        return doctorRepository.findByLastNameContainingIgnoreCase(lastName, pageable).map(this::toDTO);
+        return searchView(Query.query(Criteria.where("lastNameKey").regex(DoctorSearchIndexer.containing(key))), pageable);
     }
 
+    /**
+     * Staff lookup: doctors whose first name, last name or email contains the query, ignoring case (and accents
+     * for names). Matched against the normalized keys, so each branch filters index keys, not documents.
+     */
     public List<DoctorDTO> searchByNameOrEmail(String query) {
-        String keyword = query.trim().toLowerCase();
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "query is required");
+        }
 
-        List<Doctor> doctors = doctorRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCaseOrEmailContainingIgnoreCase(
-                keyword, keyword, keyword
-        );
+        String name = DoctorSearchIndexer.containing(DoctorSearchIndexer.normalize(trimmed));
+        Query q = Query.query(new Criteria().orOperator(
+                Criteria.where("firstNameKey").regex(name),
+                Criteria.where("lastNameKey").regex(name),
+                Criteria.where("emailKey").regex(DoctorSearchIndexer.containing(DoctorSearchIndexer.emailKey(trimmed)))));
+        q.fields().include(DoctorSearchView.FIELDS);
 
-        return doctors.stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return toViewDTOs(mongoTemplate.find(q, DoctorSearchView.class));
     }
 
 
@@ -200,31 +254,34 @@ public class DoctorService {
      * @param appointmentTypes
      * @return
      */
+    /**
+     * Only the edited fields are written, as one $set, so the rating aggregates that reviews update
+     * concurrently are never overwritten with values read before them.
+     */
     public DoctorDTO updateDoctor(String doctorId, String firstName, String lastName, String specialityId, String phoneNumber, LocalDate dateOfBirth, String bio, List<LanguageCode> languages, Integer consultationFee, List<AppointmentType> appointmentTypes){
-        Doctor doctor = doctorRepository.findById(doctorId)
-                .orElseThrow(()-> new NotFoundException("Doctor not found with ID: " + doctorId));
+        Update update = new Update();
 
         if(firstName != null && !firstName.isBlank()){
             String formatted = firstName.trim();
             formatted = formatted.substring(0, 1).toUpperCase() + formatted.substring(1).toLowerCase();
-            doctor.setFirstName(formatted);
+            update.set("firstName", formatted);
         }
 
         if(lastName != null && !lastName.isBlank()){
             String formatted = lastName.trim();
             formatted = formatted.substring(0, 1).toUpperCase() + formatted.substring(1).toLowerCase();
-            doctor.setLastName(formatted);
+            update.set("lastName", formatted);
         }
 
         if(specialityId != null && !specialityId.isBlank()){
-            Speciality speciality = specialityRepository.findById(specialityId)
+            Speciality speciality = specialityCatalogue.byId(specialityId)
                     .orElseThrow(() -> new NotFoundException("Speciality not found with ID + " + specialityId));
-            doctor.setSpeciality(speciality);
+            update.set("speciality", speciality);
         }
 
         if(phoneNumber != null && !phoneNumber.isBlank()){
             String formatted = phoneNumber.trim();
-            doctor.setPhoneNumber(formatted);
+            update.set("phoneNumber", formatted);
         }
 
         if(dateOfBirth != null){
@@ -234,15 +291,15 @@ public class DoctorService {
             if(dateOfBirth.isAfter(adultDate)){
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Doctor must be at least 18 years old");
             }
-            doctor.setDateOfBirth(dateOfBirth);
+            update.set("dateOfBirth", dateOfBirth);
         }
 
         if(bio != null && !bio.isBlank()){
-            doctor.setBio(bio);
+            update.set("bio", bio);
         }
 
         if(languages != null){
-            doctor.setLanguages(languages.stream().distinct().toList());
+            update.set("languages", languages.stream().distinct().toList());
         }
 
 
@@ -251,15 +308,27 @@ public class DoctorService {
             if (consultationFee <= 0) {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Consultation fee cannot be negative");
             }
-            doctor.setConsultationFee(consultationFee);
+            update.set("consultationFee", consultationFee);
         }
 
         if(appointmentTypes != null){
-            doctor.setAppointmentTypes(appointmentTypes.stream().distinct().toList());
+            update.set("appointmentTypes", appointmentTypes.stream().distinct().toList());
         }
 
+        // findAndModify skips auditing
+        update.set("updatedAt", Instant.now());
 
-        doctorRepository.save(doctor);
+        Doctor doctor = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(doctorId)),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                Doctor.class);
+        if (doctor == null) {
+            throw new NotFoundException("Doctor not found with ID: " + doctorId);
+        }
+
+        doctorSearchIndexer.syncProfile(doctor);
+        doctorCache.invalidate(doctorId);
         return toDTO(doctor);
     }
 
@@ -271,11 +340,249 @@ public class DoctorService {
      * @return
      */
     public Page<DoctorDTO> search(DoctorSearchCriteria c, Pageable pageable) {
+        return search(c, pageable, true);
+    }
+
+    /**
+     * @param exactTotal false to take the total from a short-lived cache (or the collection estimate when unfiltered)
+     *                   instead of counting the filtered query on every page
+     */
+    public Page<DoctorDTO> search(DoctorSearchCriteria c, Pageable pageable, boolean exactTotal) {
+        if (isGeoSearch(c)) return searchNear(c, pageable, exactTotal);
+        return searchView(buildQuery(c), pageable, exactTotal);
+    }
+
+    /**
+     * Nearest doctors first, within radiusKm if given, over doctor_search with the other filters as the $geoNear
+     * query. An exact total comes from the same aggregation through a $facet; otherwise only the page is read and
+     * the total is taken from the short page itself or from {@link SearchTotalsCache}.
+     */
+    private Page<DoctorDTO> searchNear(DoctorSearchCriteria c, Pageable pageable, boolean exactTotal) {
+        Document geoNear = geoNear(c);
+        String key = "$geoNear:" + geoNear.toJson();
+        AggregationOperation near = ctx -> new Document("$geoNear", geoNear);
+
+        if (!exactTotal) {
+            List<DoctorDTO> content = nearPage(geoNear, pageable.getOffset(), pageable.getPageSize());
+            long total = !content.isEmpty() && content.size() < pageable.getPageSize()
+                    ? pageable.getOffset() + content.size()
+                    : searchTotalsCache.get(key, () -> countNear(geoNear));
+            return new PageImpl<>(content, pageable, total);
+        }
+
+        AggregationOperation page = ctx -> new Document("$facet", new Document()
+                .append("results", List.of(
+                        new Document("$skip", pageable.getOffset()),
+                        new Document("$limit", pageable.getPageSize()),
+                        new Document("$project", nearProjection())))
+                .append("total", List.of(new Document("$count", "n"))));
+
+        Document row = mongoTemplate.aggregate(Aggregation.newAggregation(near, page),
+                DoctorSearchView.class, Document.class).getUniqueMappedResult();
+        if (row == null) return new PageImpl<>(List.of(), pageable, 0);
+
+        List<DoctorDTO> content = toNearDTOs(row.getList("results", Document.class));
+        List<Document> total = row.getList("total", Document.class);
+
+        return new PageImpl<>(content, pageable,
+                searchTotalsCache.put(key, total.isEmpty() ? 0 : ((Number) total.get(0).get("n")).longValue()));
+    }
+
+    /**
+     * One window of the $geoNear results with no count, for slices and cached-total pages
+     */
+    private List<DoctorDTO> nearPage(Document geoNear, long skip, int limit) {
+        AggregationOperation near = ctx -> new Document("$geoNear", geoNear);
+        AggregationOperation skipOp = ctx -> new Document("$skip", skip);
+        AggregationOperation limitOp = ctx -> new Document("$limit", limit);
+        AggregationOperation project = ctx -> new Document("$project", nearProjection());
+        return toNearDTOs(mongoTemplate.aggregate(Aggregation.newAggregation(near, skipOp, limitOp, project),
+                DoctorSearchView.class, Document.class).getMappedResults());
+    }
+
+    private long countNear(Document geoNear) {
+        AggregationOperation near = ctx -> new Document("$geoNear", geoNear);
+        AggregationOperation count = ctx -> new Document("$count", "n");
+        Document row = mongoTemplate.aggregate(Aggregation.newAggregation(near, count),
+                DoctorSearchView.class, Document.class).getUniqueMappedResult();
+        return row == null ? 0 : ((Number) row.get("n")).longValue();
+    }
+
+    private static Document nearProjection() {
+        Document projection = new Document("distance", 1);
+        for (String field : DoctorSearchView.FIELDS) projection.append(field, 1);
+        return projection;
+    }
+
+    private List<DoctorDTO> toNearDTOs(List<Document> results) {
+        List<DoctorDTO> content = toViewDTOs(results.stream()
+                .map(d -> mongoTemplate.getConverter().read(DoctorSearchView.class, d))
+                .toList());
+        for (int i = 0; i < content.size(); i++) {
+            Number meters = (Number) results.get(i).get("distance");
+            content.get(i).setDistanceKm(meters != null ? meters.doubleValue() / 1000 : null);
+        }
+        return content;
+    }
+
+    private Document geoNear(DoctorSearchCriteria c) {
+        if (c.getLat() < -90 || c.getLat() > 90 || c.getLng() < -180 || c.getLng() > 180) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lat/lng out of range");
+        }
+        if (c.getRadiusKm() != null && c.getRadiusKm() <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "radiusKm must be positive");
+        }
+        Document filter = buildQuery(c).getQueryObject();
+        if (filter.containsKey("$text")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q cannot be combined with a location search; use prefix");
+        }
+
+        Document geoNear = new Document("near", new Document("type", "Point").append("coordinates", List.of(c.getLng(), c.getLat())))
+                .append("distanceField", "distance")
+                .append("spherical", true)
+                .append("query", filter);
+        if (c.getRadiusKm() != null) geoNear.append("maxDistance", c.getRadiusKm() * 1000);
+        return geoNear;
+    }
+
+    /**
+     * Ids of up to 'max' doctors matching the search filters, nearest first for a location search.
+     * Otherwise the cap keeps the best text matches, or the lowest ids when there is no text query, so the
+     * same filters always pick the same doctors. Only _id is read, for callers that load everything else themselves.
+     */
+    public List<String> candidateIds(DoctorSearchCriteria c, int max) {
+        if (isGeoSearch(c)) {
+            Document geoNear = geoNear(c);
+            AggregationOperation near = ctx -> new Document("$geoNear", geoNear);
+            AggregationOperation limit = ctx -> new Document("$limit", max);
+            AggregationOperation idOnly = ctx -> new Document("$project", new Document("_id", 1));
+            return mongoTemplate.aggregate(Aggregation.newAggregation(near, limit, idOnly), DoctorSearchView.class, Document.class)
+                    .getMappedResults().stream()
+                    .map(d -> String.valueOf(d.get("_id")))
+                    .toList();
+        }
+
+        // A text query keeps its score order first; _id breaks ties
+        Query query = buildQuery(c).with(Sort.by(Sort.Direction.ASC, "_id")).limit(max);
+        query.fields().include("_id");
+        return mongoTemplate.find(query, DoctorSearchView.class).stream().map(DoctorSearchView::getId).toList();
+    }
+
+    private static boolean isGeoSearch(DoctorSearchCriteria c) {
+        if (c.getLat() == null && c.getLng() == null) {
+            if (c.getRadiusKm() != null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "radiusKm needs lat and lng");
+            }
+            return false;
+        }
+        if (c.getLat() == null || c.getLng() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lat and lng must be given together");
+        }
+        return true;
+    }
+
+    /**
+     * Count-free mode for infinite scroll: fetches one extra row to tell whether a next page exists.
+     */
+    public Slice<DoctorDTO> searchSlice(DoctorSearchCriteria c, Pageable pageable) {
+        if (isGeoSearch(c)) {
+            List<DoctorDTO> near = nearPage(geoNear(c), pageable.getOffset(), pageable.getPageSize() + 1);
+            boolean hasNext = near.size() > pageable.getPageSize();
+            return new SliceImpl<>(hasNext ? near.subList(0, pageable.getPageSize()) : near, pageable, hasNext);
+        }
+        Query query = buildQuery(c);
+        query.fields().include(DoctorSearchView.FIELDS);
+        query.with(pageable).limit(pageable.getPageSize() + 1);
+
+        List<DoctorSearchView> content = mongoTemplate.find(query, DoctorSearchView.class);
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) content = content.subList(0, pageable.getPageSize());
+
+        return new SliceImpl<>(toViewDTOs(content), pageable, hasNext);
+    }
+
+    /**
+     * One page of results plus every configured facet count from a single $facet aggregation,
+     * all over the same filters as {@link #search}.
+     */
+    public FacetedDoctorSearchDTO searchFaceted(DoctorSearchCriteria c, Pageable pageable) {
+        if (isGeoSearch(c)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Faceted search does not support lat/lng");
+        }
+        Query query = buildQuery(c);
+        Document match = query.getQueryObject();
+        boolean text = match.containsKey("$text");
+
+        Document sort = new Document();
+        if (text) sort.append("score", -1);
+        pageable.getSort().forEach(o -> sort.append(o.getProperty(), o.isAscending() ? 1 : -1));
+        sort.append("_id", 1);
+
+        Document projection = new Document();
+        for (String field : DoctorSearchView.FIELDS) projection.append(field, 1);
+
+        Document facets = new Document()
+                .append("results", List.of(
+                        new Document("$sort", sort),
+                        new Document("$skip", pageable.getOffset()),
+                        new Document("$limit", pageable.getPageSize()),
+                        new Document("$project", projection)))
+                .append("total", List.of(new Document("$count", "n")));
+        for (String field : facetFields) {
+            facets.append(field, List.of(
+                    new Document("$unwind", "$" + field),
+                    new Document("$group", new Document("_id", "$" + field).append("count", new Document("$sum", 1))),
+                    new Document("$sort", new Document("count", -1).append("_id", 1))));
+        }
+        if (feeBuckets.size() > 1) {
+            facets.append("consultationFee", List.of(new Document("$bucket", new Document("groupBy", "$consultationFee")
+                    .append("boundaries", feeBuckets)
+                    .append("default", "other")
+                    .append("output", new Document("count", new Document("$sum", 1))))));
+        }
+
+        AggregationOperation matchStage = ctx -> new Document("$match", match);
+        AggregationOperation facetStage = ctx -> new Document("$facet", facets);
+        List<AggregationOperation> stages = new ArrayList<>(List.of(matchStage));
+        // Text score metadata is copied into a field before $facet so the results sub-pipeline can sort on it
+        if (text) stages.add(ctx -> new Document("$addFields", new Document("score", new Document("$meta", "textScore"))));
+        stages.add(facetStage);
+        Document row = mongoTemplate.aggregate(Aggregation.newAggregation(stages),
+                DoctorSearchView.class, Document.class).getUniqueMappedResult();
+
+        List<DoctorSearchView> views = row == null ? List.of() : row.getList("results", Document.class).stream()
+                .map(d -> mongoTemplate.getConverter().read(DoctorSearchView.class, d))
+                .toList();
+        List<Document> total = row == null ? List.of() : row.getList("total", Document.class);
+
+        Map<String, List<FacetCountDTO>> counts = new LinkedHashMap<>();
+        if (row != null) {
+            for (String field : facets.keySet()) {
+                if (field.equals("results") || field.equals("total")) continue;
+                counts.put(field, row.getList(field, Document.class).stream()
+                        .map(d -> FacetCountDTO.builder()
+                                .value(String.valueOf(d.get("_id")))
+                                .count(((Number) d.get("count")).longValue())
+                                .build())
+                        .toList());
+            }
+        }
+
+        return FacetedDoctorSearchDTO.builder()
+                .content(toViewDTOs(views))
+                .page(pageable.getPageNumber())
+                .size(pageable.getPageSize())
+                .totalElements(total.isEmpty() ? 0 : ((Number) total.get(0).get("n")).longValue())
+                .facets(counts)
+                .build();
+    }
+
+    private Query buildQuery(DoctorSearchCriteria c) {
         List<Criteria> criteria = new ArrayList<>();
 
         if(c.getSpecialityId() != null) {
             criteria.add(
-                    Criteria.where("speciality.$id").is(new ObjectId(c.getSpecialityId()))
+                    Criteria.where("specialityId").is(c.getSpecialityId())
             );
         }
 
@@ -302,79 +609,203 @@ public class DoctorService {
 
         if(c.getClinicId() != null) {
             criteria.add(
-                    Criteria.where("clinic.$id").is(new ObjectId(c.getClinicId()))
+                    Criteria.where("clinicId").is(c.getClinicId())
             );
         }
 
-//        if (c.getLat() != null && c.getLng() != null && c.getRadiusKm() != null) {
-//            Point point = new Point(c.getLng(), c.getLat());
-//            Distance distance = new Distance(c.getRadiusKm(), Metrics.KILOMETERS);
-//            criteria.add(
-//                    Criteria.where("location")
-//                            .nearSphere(point)
-//                            .maxDistance(distance.getNormalizedValue())
-//            );
-//        }
-
-        // simple text search by name/bio
-        if (c.getQ() != null && !c.getQ().isBlank()) {
-            String regex = ".*" + Pattern.quote(c.getQ()) + ".*";
-            Criteria text = new Criteria().orOperator(
-                    Criteria.where("firstName").regex(regex, "i"),
-                    Criteria.where("lastName").regex(regex, "i"),
-                    Criteria.where("bio").regex(regex, "i")
-            );
-            criteria.add(text);
+        if (c.getCity() != null && !c.getCity().isBlank()) {
+            criteria.add(Criteria.where("cityKey").is(DoctorSearchIndexer.cityKey(c.getCity())));
         }
 
+        if (c.getPostCode() != null && !c.getPostCode().isBlank()) {
+            String postCodeKey = DoctorSearchIndexer.postCodeKey(c.getPostCode());
+            if (postCodeKey == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid postCode: " + c.getPostCode());
+            }
+            // A full postcode matches exactly; anything shorter is an outward code ("N1" must not find "N10 1AA")
+            criteria.add(DoctorSearchIndexer.isFullPostCode(postCodeKey)
+                    ? Criteria.where("postCodeKey").is(postCodeKey)
+                    : Criteria.where("outwardCode").is(postCodeKey));
+        }
 
+        if (c.getPrefix() != null && !c.getPrefix().isBlank()) {
+            criteria.add(namePrefix(c.getPrefix()));
+        }
 
-        Query query = new Query();
+        // full-text search over the text index, best matches first
+        Query query = c.getQ() != null && !c.getQ().isBlank() ? textQuery(c.getQ()) : new Query();
 
         if(!criteria.isEmpty()) {
             query.addCriteria(new Criteria().andOperator(criteria.toArray(new Criteria[0])));
         }
-        query.with(pageable);
 
-        List<Doctor> content = mongoTemplate.find(query, Doctor.class);
-        List<DoctorDTO> dtoList = content.stream().map(this::toDTO).toList();
+        return query;
+    }
+
+    /**
+     * Text index match on names, speciality title and bio, sorted by relevance score.
+     */
+    static Query textQuery(String q){
+        return TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(q.trim())).sortByScore();
+    }
+
+    /**
+     * Equality on the indexed name n-grams, so typing "jo", "joh", "john s" is one index lookup each.
+     */
+    static Criteria namePrefix(String prefix){
+        String normalized = DoctorSearchIndexer.normalize(prefix);
+        if (normalized.length() > DoctorSearchIndexer.MAX_PREFIX) {
+            normalized = normalized.substring(0, DoctorSearchIndexer.MAX_PREFIX);
+        }
+        return Criteria.where("nameTokens").is(normalized);
+    }
+
+    /**
+     * Runs a search against the doctor_search read model with the fixed projection;
+     * nothing is resolved through DBRefs.
+     */
+    private Page<DoctorDTO> searchView(Query query, Pageable pageable){
+        return searchView(query, pageable, true);
+    }
 
-        long total = mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Doctor.class);
+    private Page<DoctorDTO> searchView(Query query, Pageable pageable, boolean exactTotal){
+        query.fields().include(DoctorSearchView.FIELDS);
+        query.with(pageable);
 
-        return new PageImpl<>(dtoList, pageable, total);
+        List<DoctorSearchView> content = mongoTemplate.find(query, DoctorSearchView.class);
+
+        Query countQuery = Query.of(query).limit(-1).skip(-1);
+        String key = countQuery.getQueryObject().toJson();
+        long total;
+        if (exactTotal) {
+            total = searchTotalsCache.put(key, mongoTemplate.count(countQuery, DoctorSearchView.class));
+        } else if (countQuery.getQueryObject().isEmpty()) {
+            total = mongoTemplate.estimatedCount(DoctorSearchView.class);
+        } else {
+            total = searchTotalsCache.get(key, () -> mongoTemplate.count(countQuery, DoctorSearchView.class));
+        }
 
+        return new PageImpl<>(toViewDTOs(content), pageable, total);
     }
 
 
     private DoctorDTO toDTO(Doctor doctor){
+        return toDTOs(List.of(doctor)).get(0);
+    }
 
-        List<ReviewDTO> latestReviews = reviewRepository
-                .findTop3ByDoctorIdOrderByCreatedAtDesc(doctor.getId())
-                .stream()
-                .map(r -> ReviewDTO.builder()
-                        .id(r.getId())
-                        .comment(r.getComment())
-                        .rating(r.getRating())
-                        .patientId(r.getPatient().getId())
-                        .doctorId(r.getDoctor().getId())
-                        //.clinicId(r.getClinic().getId())
-                        .createdAt(r.getCreatedAt())
-                        .build()
-                ).toList();
+    /**
+     * Maps a page of doctors with one reviews query for the whole page instead of one per doctor.
+     */
+    private List<DoctorDTO> toDTOs(List<Doctor> doctors){
+        Map<String, List<ReviewDTO>> reviews = latestReviewsByDoctor(doctors.stream().map(Doctor::getId).toList());
+        return doctors.stream()
+                .map(d -> toDTO(d, reviews.getOrDefault(d.getId(), List.of())))
+                .toList();
+    }
 
+    /**
+     * Top 3 newest reviews for each doctor in one aggregation: $match on the doctor ids, then $group with $topN.
+     * Ids are read straight from the stored DBRefs, so no patient/doctor documents are resolved.
+     */
+    private Map<String, List<ReviewDTO>> latestReviewsByDoctor(Collection<String> doctorIds){
+        List<ObjectId> ids = doctorIds.stream().filter(ObjectId::isValid).map(ObjectId::new).toList();
+        if (ids.isEmpty()) return Map.of();
+
+        AggregationOperation match = ctx -> new Document("$match", new Document("doctor.$id", new Document("$in", ids)));
+        AggregationOperation group = ctx -> new Document("$group", new Document("_id", refId("$doctor"))
+                .append("reviews", new Document("$topN", new Document("n", 3)
+                        .append("sortBy", new Document("createdAt", -1))
+                        .append("output", new Document("id", "$_id")
+                                .append("comment", "$comment")
+                                .append("rating", "$rating")
+                                .append("patientId", refId("$patient"))
+                                .append("createdAt", "$createdAt")))));
+
+        Map<String, List<ReviewDTO>> byDoctor = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(Aggregation.newAggregation(match, group), "reviews", Document.class)) {
+            String doctorId = String.valueOf(row.get("_id"));
+            List<ReviewDTO> latest = row.getList("reviews", Document.class).stream()
+                    .map(r -> ReviewDTO.builder()
+                            .id(String.valueOf(r.get("id")))
+                            .comment(r.getString("comment"))
+                            .rating(r.get("rating") instanceof Number n ? n.floatValue() : null)
+                            .patientId(r.get("patientId") != null ? String.valueOf(r.get("patientId")) : null)
+                            .doctorId(doctorId)
+                            .createdAt(r.getDate("createdAt") != null ? r.getDate("createdAt").toInstant() : null)
+                            .build())
+                    .toList();
+            byDoctor.put(doctorId, latest);
+        }
+        return byDoctor;
+    }
+
+    /**
+     * "$id" of a DBRef field; field names starting with '$' need $getField inside expressions
+     */
+    private static Document refId(String dbRefField){
+        return new Document("$getField", new Document("field", new Document("$literal", "$id")).append("input", dbRefField));
+    }
+
+    private List<DoctorDTO> toViewDTOs(List<DoctorSearchView> views){
+        Map<String, List<ReviewDTO>> reviews = latestReviewsByDoctor(views.stream().map(DoctorSearchView::getId).toList());
+        return views.stream()
+                .map(v -> toDTO(v, reviews.getOrDefault(v.getId(), List.of())))
+                .toList();
+    }
+
+    private DoctorDTO toDTO(DoctorSearchView view, List<ReviewDTO> latestReviews){
+
+        return DoctorDTO.builder()
+                .id(view.getId())
+                .userId(view.getUserId())
+                .firstName(view.getFirstName())
+                .lastName(view.getLastName())
+                .email(view.getEmail())
+                .specialityId(view.getSpecialityId())
+                .specialityTitle(view.getSpecialityTitle())
+                .clinicId(view.getClinicId())
+                .clinicName(view.getClinicName())
+                .clinicCity(view.getClinicCity())
+                .phoneNumber(view.getPhoneNumber())
+                .dateOfBirth(view.getDateOfBirth())
+                .bio(view.getBio())
+                .latestReviews(latestReviews)
+                .averageRating(view.getAverageRating())
+                .ratingCount(view.getRatingCount())
+                .ratingHistogram(view.getRatingHistogram())
+                .imageUrl(view.getImageUrl())
+                .createdAt(view.getCreatedAt())
+                .updatedAt(view.getUpdatedAt())
+                .consultationFee(view.getConsultationFee())
+                .languages(view.getLanguages())
+                .build();
+    }
+
+    /**
+     * Same shape as {@link #toDTO(DoctorSearchView, List)}: speciality and clinic names come from the resolved refs
+     */
+    private DoctorDTO toDTO(Doctor doctor, List<ReviewDTO> latestReviews){
+        Speciality speciality = doctor.getSpeciality();
+        Clinic clinic = doctor.getClinic();
 
         return DoctorDTO.builder()
                 .id(doctor.getId())
-                .userId(doctor.getUser().getId())
+                .userId(doctor.getUser() != null ? doctor.getUser().getId() : null)
                 .firstName(doctor.getFirstName())
                 .lastName(doctor.getLastName())
                 .email(doctor.getEmail())
-                .specialityId(doctor.getSpeciality().getId())
+                .specialityId(speciality != null ? speciality.getId() : null)
+                .specialityTitle(speciality != null ? speciality.getTitle() : null)
+                .clinicId(clinic != null ? clinic.getId() : null)
+                .clinicName(clinic != null ? clinic.getName() : null)
+                .clinicCity(clinic != null ? clinic.getCity() : null)
                 .phoneNumber(doctor.getPhoneNumber())
                 .dateOfBirth(doctor.getDateOfBirth())
                 .bio(doctor.getBio())
                 .latestReviews(latestReviews)
                 .averageRating(doctor.getAverageRating())
+                .ratingCount(doctor.getRatingCount())
+                .ratingHistogram(doctor.getRatingHistogram())
                 .imageUrl(doctor.getImageUrl())
                 .createdAt(doctor.getCreatedAt())
                 .updatedAt(doctor.getUpdatedAt())
@@ -0,0 +1,106 @@
+package com.example.vladyslav.service;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of half-open [start, end) intervals in epoch millis.
+ * Overlapping and touching intervals are merged on build, so starts and ends are both sorted
+ * and an overlap check is a single binary search.
+ */
+public final class IntervalSet {
+
+    public static final IntervalSet EMPTY = new IntervalSet(new long[0], new long[0]);
+
+    private final long[] starts;
+    private final long[] ends;
+
+    private IntervalSet(long[] starts, long[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    public boolean isEmpty() {
+        return starts.length == 0;
+    }
+
+    /**
+     * True if any interval intersects [start, end).
+     */
+    public boolean overlaps(long start, long end) {
+        // Last interval that starts before 'end'; since intervals are disjoint it is the only candidate
+        int i = Arrays.binarySearch(starts, end);
+        i = i >= 0 ? i - 1 : -i - 2;
+        return i >= 0 && ends[i] > start;
+    }
+
+    /**
+     * Forward-only overlap checker for callers that probe in ascending order (e.g. slot expansion),
+     * which makes a full sweep O(intervals + probes) instead of a binary search per probe.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public final class Cursor {
+        private int i = 0;
+
+        private Cursor() {}
+
+        public boolean overlaps(long start, long end) {
+            while (i < ends.length && ends[i] <= start) i++;
+            return i < starts.length && starts[i] < end;
+        }
+    }
+
+    public static final class Builder {
+        private long[] starts = new long[16];
+        private long[] ends = new long[16];
+        private int n = 0;
+
+        private Builder() {}
+
+        public Builder add(long start, long end) {
+            if (end <= start) return this;
+            if (n == starts.length) {
+                starts = Arrays.copyOf(starts, n * 2);
+                ends = Arrays.copyOf(ends, n * 2);
+            }
+            starts[n] = start;
+            ends[n] = end;
+            n++;
+            return this;
+        }
+
+        public IntervalSet build() {
+            if (n == 0) return EMPTY;
+
+            // Sort indices by start, then merge in one pass
+            Integer[] order = new Integer[n];
+            for (int k = 0; k < n; k++) order[k] = k;
+            Arrays.sort(order, (a, b) -> Long.compare(starts[a], starts[b]));
+
+            long[] s = new long[n];
+            long[] e = new long[n];
+            int m = 0;
+            for (int k = 0; k < n; k++) {
+                long cs = starts[order[k]], ce = ends[order[k]];
+                if (m > 0 && cs <= e[m - 1]) {
+                    e[m - 1] = Math.max(e[m - 1], ce);
+                } else {
+                    s[m] = cs;
+                    e[m] = ce;
+                    m++;
+                }
+            }
+            return new IntervalSet(Arrays.copyOf(s, m), Arrays.copyOf(e, m));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.dto.DoctorDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-node stand-in for a Redis second tier, enabled with {@code app.cache.doctor.second-tier=local}.
+ * <p>
+ * Behaves like a remote store for {@link DoctorCache}: values are copied in and out as if serialized,
+ * each entry carries its own TTL, and entries are dropped lazily on read or when the store is full.
+ * Useful for exercising the two-level path locally before a shared store is deployed.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.doctor.second-tier", havingValue = "local")
+public class LocalDoctorCacheTier implements DoctorCacheTier {
+
+    private final int maxSize;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public LocalDoctorCacheTier(@Value("${app.cache.doctor.second-tier-max-size:50000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public DoctorDTO get(String doctorId) {
+        Entry entry = entries.get(doctorId);
+        if (entry == null) return null;
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(doctorId, entry);
+            return null;
+        }
+        return DoctorCache.copyOf(entry.value);
+    }
+
+    @Override
+    public void put(String doctorId, DoctorDTO doctor, long ttlSeconds) {
+        if (doctor == null || ttlSeconds <= 0) return;
+        long now = System.currentTimeMillis();
+        if (entries.size() >= maxSize) {
+            entries.values().removeIf(e -> e.expiresAt <= now);
+            // Still full of live entries: skip rather than evict, the first level keeps serving hot keys
+            if (entries.size() >= maxSize) return;
+        }
+        entries.put(doctorId, new Entry(DoctorCache.copyOf(doctor), now + ttlSeconds * 1000));
+    }
+
+    @Override
+    public void evict(String doctorId) {
+        entries.remove(doctorId);
+    }
+
+    private static final class Entry {
+        private final DoctorDTO value;
+        private final long expiresAt;
+
+        private Entry(DoctorDTO value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
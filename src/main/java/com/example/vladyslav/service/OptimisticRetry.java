@@ -0,0 +1,77 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.dto.RetryStatsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a read-modify-save when the save loses on @Version. Each attempt must read the entity itself,
+ * so a retry works on the latest version and re-checks its preconditions. Waits between attempts grow
+ * exponentially with full jitter, so competing writers do not retry in lockstep. After the last attempt
+ * the caller gets a 409 instead of a 500.
+ */
+@Component
+public class OptimisticRetry {
+
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    public OptimisticRetry(@Value("${app.retry.optimistic.max-attempts:4}") int maxAttempts,
+                           @Value("${app.retry.optimistic.base-backoff-ms:20}") long baseBackoffMillis,
+                           @Value("${app.retry.optimistic.max-backoff-ms:250}") long maxBackoffMillis) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public <T> T run(String what, Supplier<T> attempt) {
+        for (int n = 1; ; n++) {
+            try {
+                return attempt.get();
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.incrementAndGet();
+                if (n >= maxAttempts) {
+                    exhausted.incrementAndGet();
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, what + " was changed by someone else, please reload and try again.");
+                }
+                retries.incrementAndGet();
+                sleep(backoff(n));
+            }
+        }
+    }
+
+    public RetryStatsDTO stats() {
+        return RetryStatsDTO.builder()
+                .maxAttempts(maxAttempts)
+                .conflicts(conflicts.get())
+                .retries(retries.get())
+                .exhausted(exhausted.get())
+                .build();
+    }
+
+    private long backoff(int attempt) {
+        long cap = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        return cap > 0 ? ThreadLocalRandom.current().nextLong(cap + 1) : 0;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while retrying, please try again.");
+        }
+    }
+}
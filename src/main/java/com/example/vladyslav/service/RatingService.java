@@ -0,0 +1,246 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.model.Clinic;
+import com.example.vladyslav.model.Doctor;
+import com.example.vladyslav.model.DoctorSearchView;
+import com.example.vladyslav.model.Review;
+import com.mongodb.DBRef;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Maintains rating aggregates so no read ever has to aggregate the reviews collection:
+ * ratingSum, ratingCount and a 1-5 star ratingHistogram on each doctor, and the same rolled up
+ * across a clinic's doctors on the clinic. averageRating is derived from sum and count in the same write.
+ */
+@Service
+@RequiredArgsConstructor
+public class RatingService {
+
+    public static final int STARS = 5;
+
+    private static final int REPAIR_BATCH = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final DoctorSearchIndexer doctorSearchIndexer;
+    private final DoctorCache doctorCache;
+
+    public void reviewAdded(String doctorId, float rating) {
+        apply(doctorId, rating, 1, star(rating));
+    }
+
+    public void reviewRemoved(String doctorId, float rating) {
+        apply(doctorId, -rating, -1, star(rating));
+    }
+
+    /**
+     * Moves a doctor's aggregates from its previous clinic (if any) to the new one.
+     * Pass the doctor as read atomically with the clinic switch, so the moved totals are exactly what was
+     * credited to the previous clinic.
+     */
+    public void doctorMoved(Doctor doctor, String fromClinicId, String toClinicId) {
+        if (toClinicId != null && toClinicId.equals(fromClinicId)) return;
+
+        Map<String, Integer> histogram = doctor.getRatingHistogram() != null ? doctor.getRatingHistogram() : Map.of();
+        if (fromClinicId != null) {
+            applyToClinic(new ObjectId(fromClinicId), -doctor.getRatingSum(), -doctor.getRatingCount(), negate(histogram));
+        }
+        if (toClinicId != null) {
+            applyToClinic(new ObjectId(toClinicId), doctor.getRatingSum(), doctor.getRatingCount(), histogram);
+        }
+    }
+
+    /**
+     * Rounded star bucket of a rating, half up: 4.5 counts as 5
+     */
+    public static int star(float rating) {
+        return Math.max(1, Math.min(STARS, (int) Math.floor(rating + 0.5)));
+    }
+
+    private void apply(String doctorId, double ratingDelta, int countDelta, int star) {
+        Map<String, Integer> histogramDelta = Map.of(String.valueOf(star), countDelta);
+
+        // Raw documents so the stored clinic DBRef is read without resolving it
+        Document updated = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(new ObjectId(doctorId))),
+                aggregatesUpdate(ratingDelta, countDelta, histogramDelta),
+                FindAndModifyOptions.options().returnNew(true),
+                Document.class,
+                mongoTemplate.getCollectionName(Doctor.class));
+
+        if (updated != null) {
+            Number average = (Number) updated.get("averageRating");
+            Number count = (Number) updated.get("ratingCount");
+            Map<String, Integer> histogram = new HashMap<>();
+            Document stored = updated.get("ratingHistogram", Document.class);
+            if (stored != null) stored.forEach((star, n) -> histogram.put(star, ((Number) n).intValue()));
+            doctorSearchIndexer.syncRating(doctorId, average != null ? average.floatValue() : null,
+                    count != null ? count.intValue() : 0, histogram);
+            if (updated.get("clinic") instanceof DBRef clinic) {
+                applyToClinic(clinic.getId(), ratingDelta, countDelta, histogramDelta);
+            }
+        }
+        // Rating and latest reviews are both part of the cached profile
+        doctorCache.invalidate(doctorId);
+    }
+
+    private void applyToClinic(Object clinicId, double ratingDelta, int countDelta, Map<String, Integer> histogramDelta) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(clinicId)),
+                aggregatesUpdate(ratingDelta, countDelta, histogramDelta),
+                mongoTemplate.getCollectionName(Clinic.class));
+    }
+
+    /**
+     * One pipeline update: add the deltas to sum, count and histogram buckets, then set averageRating from them.
+     */
+    private static AggregationUpdate aggregatesUpdate(double ratingDelta, int countDelta, Map<String, Integer> histogramDelta) {
+        Document counters = new Document("ratingSum", plus("$ratingSum", ratingDelta))
+                .append("ratingCount", plus("$ratingCount", countDelta));
+        histogramDelta.forEach((star, delta) ->
+                counters.append("ratingHistogram." + star, plus("$ratingHistogram." + star, delta)));
+
+        AggregationOperation setCounters = ctx -> new Document("$set", counters);
+        AggregationOperation setAverage = ctx -> new Document("$set", new Document("averageRating", new Document("$cond", List.of(
+                new Document("$gt", List.of("$ratingCount", 0)),
+                new Document("$divide", List.of("$ratingSum", "$ratingCount")),
+                0))));
+        return AggregationUpdate.from(List.of(setCounters, setAverage));
+    }
+
+    private static Document plus(String field, Number delta) {
+        return new Document("$add", List.of(new Document("$ifNull", List.of(field, 0)), delta));
+    }
+
+    private static Map<String, Integer> negate(Map<String, Integer> histogram) {
+        Map<String, Integer> negated = new HashMap<>();
+        histogram.forEach((star, n) -> negated.put(star, -n));
+        return negated;
+    }
+
+    /**
+     * Recomputes every doctor's aggregates with one $group over reviews, then every clinic's with one $group
+     * over doctors, writing back with bulk updates. Doctors and clinics without reviews are reset to zero.
+     * Reviews written while this runs may be counted twice or not at all, so run it when traffic is low.
+     */
+    public void repairAll() {
+        Document starExpr = new Document("$max", List.of(1, new Document("$min", List.of(STARS,
+                new Document("$floor", new Document("$add", List.of("$rating", 0.5)))))));
+        Document reviewGroup = new Document("_id", refId("$doctor"))
+                .append("sum", new Document("$sum", "$rating"))
+                .append("count", new Document("$sum", 1));
+        for (int s = 1; s <= STARS; s++) {
+            reviewGroup.append("h" + s, new Document("$sum", new Document("$cond", List.of(new Document("$eq", List.of(starExpr, s)), 1, 0))));
+        }
+        AggregationOperation byDoctor = ctx -> new Document("$group", reviewGroup);
+
+        Set<Object> reviewed = new HashSet<>();
+        try (Stream<Document> rows = mongoTemplate.aggregateStream(Aggregation.newAggregation(byDoctor), Review.class, Document.class)) {
+            writeAggregates(rows, reviewed, Doctor.class, true);
+        }
+        resetOthers(reviewed, Doctor.class);
+
+        Document doctorGroup = new Document("_id", refId("$clinic"))
+                .append("sum", new Document("$sum", "$ratingSum"))
+                .append("count", new Document("$sum", "$ratingCount"));
+        for (int s = 1; s <= STARS; s++) {
+            doctorGroup.append("h" + s, new Document("$sum", new Document("$ifNull", List.of("$ratingHistogram." + s, 0))));
+        }
+        AggregationOperation withClinic = ctx -> new Document("$match", new Document("clinic", new Document("$ne", null)));
+        AggregationOperation byClinic = ctx -> new Document("$group", doctorGroup);
+
+        Set<Object> rated = new HashSet<>();
+        try (Stream<Document> rows = mongoTemplate.aggregateStream(Aggregation.newAggregation(withClinic, byClinic), Doctor.class, Document.class)) {
+            writeAggregates(rows, rated, Clinic.class, false);
+        }
+        resetOthers(rated, Clinic.class);
+
+        // The search view carries the doctor aggregates too
+        doctorSearchIndexer.rebuildAll();
+    }
+
+    private void writeAggregates(Stream<Document> rows, Set<Object> seen, Class<?> target, boolean syncViews) {
+        String collection = mongoTemplate.getCollectionName(target);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+        BulkOperations views = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DoctorSearchView.class);
+        int pending = 0;
+
+        for (Document row : (Iterable<Document>) rows::iterator) {
+            Object id = row.get("_id");
+            if (id == null) continue;
+            double sum = ((Number) row.get("sum")).doubleValue();
+            int count = ((Number) row.get("count")).intValue();
+            float average = count > 0 ? (float) (sum / count) : 0f;
+            Document histogram = new Document();
+            for (int s = 1; s <= STARS; s++) histogram.append(String.valueOf(s), ((Number) row.get("h" + s)).intValue());
+
+            seen.add(id);
+            bulk.updateOne(Query.query(Criteria.where("_id").is(id)), new Update()
+                    .set("ratingSum", sum).set("ratingCount", count).set("ratingHistogram", histogram).set("averageRating", average));
+            if (syncViews) {
+                views.updateOne(Query.query(Criteria.where("_id").is(String.valueOf(id))), new Update().set("averageRating", average));
+            }
+            if (++pending >= REPAIR_BATCH) {
+                bulk.execute();
+                if (syncViews) views.execute();
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                views = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DoctorSearchView.class);
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+            if (syncViews) views.execute();
+        }
+    }
+
+    private void resetOthers(Set<Object> seen, Class<?> target) {
+        Document emptyHistogram = new Document();
+        for (int s = 1; s <= STARS; s++) emptyHistogram.append(String.valueOf(s), 0);
+
+        Query others = Query.query(Criteria.where("_id").nin(new ArrayList<>(seen)));
+        mongoTemplate.updateMulti(others, new Update()
+                .set("ratingSum", 0d).set("ratingCount", 0).set("ratingHistogram", emptyHistogram).set("averageRating", 0f),
+                mongoTemplate.getCollectionName(target));
+        if (target == Doctor.class) {
+            List<String> ids = seen.stream().map(String::valueOf).toList();
+            mongoTemplate.updateMulti(Query.query(Criteria.where("_id").nin(ids)), new Update().set("averageRating", 0f), DoctorSearchView.class);
+        }
+    }
+
+    /**
+     * Doctors or clinics from before the aggregates existed have no histogram; fill them in once.
+     */
+    public void repairIfMissing() {
+        Query missing = Query.query(Criteria.where("ratingHistogram").exists(false));
+        if (mongoTemplate.exists(missing, Doctor.class) || mongoTemplate.exists(missing, Clinic.class)) {
+            repairAll();
+        }
+    }
+
+    /**
+     * "$id" of a DBRef field; field names starting with '$' need $getField inside expressions
+     */
+    private static Document refId(String dbRefField) {
+        return new Document("$getField", new Document("field", new Document("$literal", "$id")).append("input", dbRefField));
+    }
+}
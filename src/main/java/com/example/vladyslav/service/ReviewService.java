@@ -15,6 +15,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -30,6 +33,8 @@ public class ReviewService {
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
+    private final RatingService ratingService;
+    private final MongoTemplate mongoTemplate;
 
     public ReviewDTO createReviewForDoctor( ReviewCreateRequest request){
         // 1) Basic validation
@@ -85,8 +90,8 @@ public class ReviewService {
 
         Review saved = reviewRepository.save(review);
 
-        // 9) Recalculate doctor's average rating
-        recalculateDoctorAverage(doctor);
+        // 9) Add to the doctor's rating aggregates
+        ratingService.reviewAdded(doctor.getId(), saved.getRating());
 
         return toReviewDTO(saved);
     }
@@ -116,20 +121,11 @@ public class ReviewService {
         }
 
 
-        reviewRepository.deleteById(reviewId);
-        // When a review is deleted, recalculate doctor average
-        doctorRepository.findById(review.getDoctor().getId()).ifPresent(this::recalculateDoctorAverage);
-    }
-
-    private void recalculateDoctorAverage(Doctor doctor) {
-        var page = reviewRepository.findByDoctorIdOrderByCreatedAtDesc(doctor.getId(), Pageable.unpaged());
-        double avg = page.getContent().stream()
-                .mapToDouble(Review::getRating)
-                .average()
-                .orElse(0.0);
-
-        doctor.setAverageRating((float) avg);
-        doctorRepository.save(doctor);
+        // Only the request that actually removed the review takes it out of the aggregates
+        long deleted = mongoTemplate.remove(Query.query(Criteria.where("_id").is(reviewId)), Review.class).getDeletedCount();
+        if (deleted > 0 && review.getDoctor() != null && review.getRating() != null) {
+            ratingService.reviewRemoved(review.getDoctor().getId(), review.getRating());
+        }
     }
 
     private Page<ReviewDTO> findByDoctorId(String doctorId, int size, int page){
@@ -0,0 +1,48 @@
+package com.example.vladyslav.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of search result totals keyed by the normalized query document.
+ * Totals may be up to {@link #MAX_AGE_MILLIS} stale, which is fine for "about N results" but not for exact paging.
+ */
+@Component
+public class SearchTotalsCache {
+
+    private static final long MAX_AGE_MILLIS = 30 * 1000L;
+    private static final int MAX_ENTRIES = 2_000;
+
+    private final Map<String, Total> totals = new ConcurrentHashMap<>();
+
+    public long get(String key, LongSupplier counter) {
+        Total total = totals.get(key);
+        if (total == null || System.currentTimeMillis() - total.countedAt > MAX_AGE_MILLIS) {
+            return put(key, counter.getAsLong());
+        }
+        return total.value;
+    }
+
+    public long put(String key, long value) {
+        if (totals.size() >= MAX_ENTRIES) {
+            long now = System.currentTimeMillis();
+            totals.values().removeIf(t -> now - t.countedAt > MAX_AGE_MILLIS);
+            if (totals.size() >= MAX_ENTRIES) totals.clear();
+        }
+        totals.put(key, new Total(value, System.currentTimeMillis()));
+        return value;
+    }
+
+    private static final class Total {
+        private final long value;
+        private final long countedAt;
+
+        private Total(long value, long countedAt) {
+            this.value = value;
+            this.countedAt = countedAt;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.model.Appointment;
+import com.example.vladyslav.model.SlotClaim;
+import com.example.vladyslav.model.enums.AppointmentStatus;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Atomic overlap prevention. A booking claims every 5-minute granule it covers in one ordered bulk insert;
+ * a granule already claimed by someone else fails the insert on the primary key, so two overlapping
+ * bookings can never both succeed, even when their starts differ.
+ */
+@Service
+@RequiredArgsConstructor
+public class SlotClaimService {
+
+    public static final long GRANULE_MILLIS = 5 * 60 * 1000L;
+
+    private static final int BACKFILL_BATCH = 1000;
+    private static final String MIGRATIONS = "migrations";
+    private static final String BACKFILL_MARKER = "slot-claims-backfill";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Claims [start, end) for the owner or throws 409 without leaving partial claims behind.
+     */
+    public void claim(String doctorId, Instant start, Instant end, String ownerId) {
+        claim(doctorId, start, end, ownerId, null);
+    }
+
+    /**
+     * Same as {@link #claim(String, Instant, Instant, String)}, but the claims lapse at {@code expiresAt}
+     * unless {@link #persist} is called first. Used by slot holds.
+     */
+    public void claim(String doctorId, Instant start, Instant end, String ownerId, Instant expiresAt) {
+        insertAll(toClaims(doctorId, granuleIds(doctorId, start, end), ownerId, expiresAt));
+    }
+
+    /**
+     * Claims every appointment's range in one ordered bulk insert: either all of them get their granules
+     * or none do and the call fails with 409. Used for appointment series.
+     */
+    public void claimAll(List<Appointment> appointments) {
+        List<SlotClaim> claims = new ArrayList<>();
+        for (Appointment a : appointments) {
+            claims.addAll(toClaims(a.getDoctorId(), granuleIds(a.getDoctorId(), a.getStart(), a.getEnd()), a.getId(), null));
+        }
+        insertAll(claims);
+    }
+
+    /**
+     * Makes an owner's expiring claims permanent. Fails with 409 if any of them already lapsed, releasing the rest.
+     * Only call it once the caller owns the hold exclusively (see {@code AppointmentService#confirmHold}),
+     * or a second caller would release claims the first one just made permanent.
+     */
+    public void persist(String ownerId, String doctorId, Instant start, Instant end) {
+        int expected = granuleIds(doctorId, start, end).size();
+        long updated = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("ownerId").is(ownerId).and("expiresAt").gt(Instant.now())),
+                new Update().unset("expiresAt"),
+                SlotClaim.class).getModifiedCount();
+
+        if (updated < expected) {
+            release(ownerId);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Hold expired, please pick the slot again.");
+        }
+    }
+
+    /**
+     * Moves an owner's claims to a new range. Granules shared by both ranges are kept,
+     * so rescheduling by a few minutes does not collide with itself.
+     */
+    public void move(String doctorId, Instant oldStart, Instant oldEnd, Instant newStart, Instant newEnd, String ownerId) {
+        Set<String> previous = granuleIds(doctorId, oldStart, oldEnd);
+        Set<String> next = granuleIds(doctorId, newStart, newEnd);
+
+        Set<String> toClaim = new LinkedHashSet<>(next);
+        toClaim.removeAll(previous);
+        insertAll(toClaims(doctorId, toClaim, ownerId, null));
+
+        Set<String> stale = new LinkedHashSet<>(previous);
+        stale.removeAll(next);
+        if (!stale.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(stale).and("ownerId").is(ownerId)), SlotClaim.class);
+        }
+    }
+
+    /**
+     * Makes an owner's claims match the stored appointment: exactly its range while it is live, none once it is
+     * cancelled or gone. Used after a failed save, where what is stored (not what the failed writer intended)
+     * is the truth - undoing the writer's own move could re-claim a range another writer has since left.
+     */
+    public void reconcile(String ownerId, Appointment stored) {
+        if (stored == null || stored.getStatus() == AppointmentStatus.CANCELLED) {
+            release(ownerId);
+            return;
+        }
+        Set<String> keep = granuleIds(stored.getDoctorId(), stored.getStart(), stored.getEnd());
+        mongoTemplate.remove(Query.query(Criteria.where("ownerId").is(ownerId).and("_id").nin(keep)), SlotClaim.class);
+        insertIgnoringDuplicates(toClaims(stored.getDoctorId(), keep, ownerId, null));
+    }
+
+    public void release(String ownerId) {
+        mongoTemplate.remove(Query.query(Criteria.where("ownerId").is(ownerId)), SlotClaim.class);
+    }
+
+    public void release(Collection<String> ownerIds) {
+        if (ownerIds.isEmpty()) return;
+        mongoTemplate.remove(Query.query(Criteria.where("ownerId").in(ownerIds)), SlotClaim.class);
+    }
+
+    /**
+     * Claims granules for future appointments booked before claims existed. Idempotent:
+     * already-claimed granules are skipped, so it is safe to run on every node at startup.
+     * Once a run finishes a marker document is written, and later startups skip the scan entirely.
+     */
+    public void backfill() {
+        if (mongoTemplate.exists(Query.query(Criteria.where("_id").is(BACKFILL_MARKER)), MIGRATIONS)) return;
+
+        Query future = Query.query(Criteria.where("start").gte(Instant.now())
+                .and("status").ne(AppointmentStatus.CANCELLED));
+
+        List<SlotClaim> batch = new ArrayList<>(BACKFILL_BATCH);
+        try (Stream<Appointment> appointments = mongoTemplate.stream(future, Appointment.class)) {
+            appointments.forEach(a -> {
+                batch.addAll(toClaims(a.getDoctorId(), granuleIds(a.getDoctorId(), a.getStart(), a.getEnd()), a.getId(), null));
+                if (batch.size() >= BACKFILL_BATCH) {
+                    insertIgnoringDuplicates(batch);
+                    batch.clear();
+                }
+            });
+        }
+        insertIgnoringDuplicates(batch);
+
+        try {
+            mongoTemplate.insert(new Document("_id", BACKFILL_MARKER).append("completedAt", Date.from(Instant.now())), MIGRATIONS);
+        } catch (DuplicateKeyException e) {
+            // Another node finished the same backfill first
+        }
+    }
+
+    /**
+     * True when the instant is on a granule boundary, so a booking starting or ending there claims exactly its range
+     */
+    public static boolean isAligned(Instant instant) {
+        return instant.toEpochMilli() % GRANULE_MILLIS == 0;
+    }
+
+    public static Set<String> granuleIds(String doctorId, Instant start, Instant end) {
+        long from = Math.floorDiv(start.toEpochMilli(), GRANULE_MILLIS) * GRANULE_MILLIS;
+        long to = end.toEpochMilli();
+
+        Set<String> ids = new LinkedHashSet<>();
+        for (long g = from; g < to; g += GRANULE_MILLIS) {
+            ids.add(doctorId + ":" + g);
+        }
+        return ids;
+    }
+
+    private List<SlotClaim> toClaims(String doctorId, Set<String> ids, String ownerId, Instant expiresAt) {
+        List<SlotClaim> claims = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            long granule = Long.parseLong(id.substring(id.lastIndexOf(':') + 1));
+            claims.add(SlotClaim.builder()
+                    .id(id)
+                    .doctorId(doctorId)
+                    .slotStart(Instant.ofEpochMilli(granule))
+                    .ownerId(ownerId)
+                    .expiresAt(expiresAt)
+                    .build());
+        }
+        return claims;
+    }
+
+    private void insertAll(List<SlotClaim> claims) {
+        if (claims.isEmpty()) return;
+        if (tryInsert(claims)) return;
+
+        // The TTL monitor only runs once a minute, so a lapsed hold may still sit on the granules
+        List<String> ids = claims.stream().map(SlotClaim::getId).toList();
+        long reaped = mongoTemplate.remove(
+                Query.query(Criteria.where("_id").in(ids).and("expiresAt").lte(Instant.now())),
+                SlotClaim.class).getDeletedCount();
+
+        if (reaped == 0 || !tryInsert(claims)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Requested time is already booked for this doctor.");
+        }
+    }
+
+    private boolean tryInsert(List<SlotClaim> claims) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, SlotClaim.class).insert(claims).execute();
+            return true;
+        } catch (DuplicateKeyException | BulkOperationException e) {
+            // Ordered insert stops at the first taken granule; undo the ones that went in before it
+            List<String> ids = claims.stream().map(SlotClaim::getId).toList();
+            Set<String> owners = new LinkedHashSet<>();
+            for (SlotClaim claim : claims) owners.add(claim.getOwnerId());
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids).and("ownerId").in(owners)), SlotClaim.class);
+            return false;
+        }
+    }
+
+    private void insertIgnoringDuplicates(List<SlotClaim> claims) {
+        if (claims.isEmpty()) return;
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SlotClaim.class).insert(claims).execute();
+        } catch (DataAccessException e) {
+            // Granules claimed already (another node, or legacy overlapping bookings) - nothing to do
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.model.AvailabilityRule;
+import com.example.vladyslav.model.Window;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * Expands weekly {@link AvailabilityRule}s into concrete slots and classifies each slot against
+ * pre-loaded busy intervals. Pure in-memory work: callers load rules, time-off and appointments once
+ * per range and pass them in, so the cost is O(days * slots + busy intervals) with no DB access.
+ */
+public final class SlotEngine {
+
+    public static final ZoneId UK_TZ = ZoneId.of("Europe/London");
+
+    public enum SlotState {
+        FREE,
+        BOOKED,
+        HELD,
+        TIME_OFF
+    }
+
+    @FunctionalInterface
+    public interface SlotVisitor {
+        /**
+         * @return false to stop the expansion early (e.g. once enough free slots were collected)
+         */
+        boolean visit(Instant start, Instant end, SlotState state);
+    }
+
+    private SlotEngine() {}
+
+    /**
+     * Walks every slot between {@code from} and {@code to} (inclusive, UK local dates) in ascending order.
+     * A slot's footprint is bufferBefore + slotMinutes + bufferAfter; footprints never cross a break or the
+     * end of the working day, and the footprint (not just the slot) is checked against busy intervals.
+     */
+    public static void expand(Collection<AvailabilityRule> rules,
+                              IntervalSet timeOff,
+                              IntervalSet booked,
+                              IntervalSet held,
+                              LocalDate from,
+                              LocalDate to,
+                              SlotVisitor visitor) {
+        AvailabilityRule[] byDow = new AvailabilityRule[8];
+        for (AvailabilityRule rule : rules) {
+            if (rule.getDayOfWeek() >= 1 && rule.getDayOfWeek() <= 7) byDow[rule.getDayOfWeek()] = rule;
+        }
+
+        IntervalSet.Cursor offs = timeOff.cursor();
+        IntervalSet.Cursor taken = booked.cursor();
+        IntervalSet.Cursor holds = held.cursor();
+
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            AvailabilityRule rule = byDow[day.getDayOfWeek().getValue()];
+            if (rule == null || rule.getSlotMinutes() <= 0 || rule.getStart() == null || rule.getEnd() == null) continue;
+
+            int before = Math.max(0, rule.getBufferBeforeMinutes());
+            int after = Math.max(0, rule.getBufferAfterMinutes());
+            int slot = rule.getSlotMinutes();
+            int footprint = before + slot + after;
+            // Rules saved before alignment was enforced would list slots no booking can claim
+            if (before % WeeklyAvailability.UNIT_MINUTES != 0 || slot % WeeklyAvailability.UNIT_MINUTES != 0
+                    || after % WeeklyAvailability.UNIT_MINUTES != 0) continue;
+            int dayEnd = minuteOfDay(rule.getEnd());
+            int[][] breaks = breaks(rule);
+
+            int t = alignUp(minuteOfDay(rule.getStart()));
+            while (t + footprint <= dayEnd) {
+                int breakEnd = overlappingBreakEnd(breaks, t, t + footprint);
+                if (breakEnd >= 0) {
+                    // Re-align the grid after the break
+                    t = alignUp(breakEnd);
+                    continue;
+                }
+
+                long footprintStart = toEpochMilli(day, t);
+                long footprintEnd = toEpochMilli(day, t + footprint);
+                // On clock-change days the local grid does not map one-to-one onto instants: skip footprints that
+                // start in the skipped hour or whose real length differs, so no slot is listed twice or stretched
+                if (inGap(day, t) || footprintEnd - footprintStart != footprint * 60_000L) {
+                    t += footprint;
+                    continue;
+                }
+
+                SlotState state;
+                if (offs.overlaps(footprintStart, footprintEnd)) state = SlotState.TIME_OFF;
+                else if (taken.overlaps(footprintStart, footprintEnd)) state = SlotState.BOOKED;
+                else if (holds.overlaps(footprintStart, footprintEnd)) state = SlotState.HELD;
+                else state = SlotState.FREE;
+
+                Instant start = Instant.ofEpochMilli(toEpochMilli(day, t + before));
+                Instant end = Instant.ofEpochMilli(toEpochMilli(day, t + before + slot));
+                if (!visitor.visit(start, end, state)) return;
+
+                t += footprint;
+            }
+        }
+    }
+
+    static int minuteOfDay(LocalTime time) {
+        return time.toSecondOfDay() / 60;
+    }
+
+    private static int alignUp(int minute) {
+        int unit = WeeklyAvailability.UNIT_MINUTES;
+        return (minute + unit - 1) / unit * unit;
+    }
+
+    static long toEpochMilli(LocalDate day, int minuteOfDay) {
+        return day.atStartOfDay().plusMinutes(minuteOfDay).atZone(UK_TZ).toInstant().toEpochMilli();
+    }
+
+    private static boolean inGap(LocalDate day, int minuteOfDay) {
+        return UK_TZ.getRules().getValidOffsets(day.atStartOfDay().plusMinutes(minuteOfDay)).isEmpty();
+    }
+
+    private static int[][] breaks(AvailabilityRule rule) {
+        if (rule.getBreaks() == null || rule.getBreaks().isEmpty()) return new int[0][];
+        return rule.getBreaks().stream()
+                .filter(w -> w != null && w.getStartBreak() != null && w.getEndBreak() != null)
+                .map(SlotEngine::toMinutes)
+                .sorted(Comparator.comparingInt(w -> w[0]))
+                .toArray(int[][]::new);
+    }
+
+    private static int[] toMinutes(Window w) {
+        return new int[]{minuteOfDay(w.getStartBreak()), minuteOfDay(w.getEndBreak())};
+    }
+
+    /**
+     * @return the end minute of the first break intersecting [start, end), or -1 if none does
+     */
+    private static int overlappingBreakEnd(int[][] breaks, int start, int end) {
+        for (int[] b : breaks) {
+            if (b[0] < end && b[1] > start) return b[1];
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.dto.SlotDTO;
+import com.example.vladyslav.model.Appointment;
+import com.example.vladyslav.model.AvailabilityRule;
+import com.example.vladyslav.model.SlotHold;
+import com.example.vladyslav.model.TimeOff;
+import com.example.vladyslav.model.enums.AppointmentStatus;
+import com.example.vladyslav.repository.AppointmentRepository;
+import com.example.vladyslav.repository.AvailabilityRuleRepository;
+import com.example.vladyslav.repository.SlotHoldRepository;
+import com.example.vladyslav.repository.TimeOffRepository;
+import com.example.vladyslav.search.DoctorSearchCriteria;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.example.vladyslav.service.SlotEngine.UK_TZ;
+
+@Service
+@RequiredArgsConstructor
+public class SlotService {
+
+    private static final int MAX_RANGE_DAYS = 62;
+    private static final int MAX_CANDIDATES = 500;
+    private static final int MAX_EARLIEST = 100;
+    private static final long EXPANSION_TIMEOUT_MILLIS = 5_000;
+    private static final int EXPANSION_THREADS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+    /**
+     * Each request queues at most one batch per thread, so this admits a few requests' worth of work at once
+     */
+    private static final int EXPANSION_QUEUE = EXPANSION_THREADS * 4;
+
+    private final AvailabilityCache availabilityCache;
+    private final TimeOffIndex timeOffIndex;
+    private final AppointmentRepository appointmentRepository;
+    private final SlotHoldRepository slotHoldRepository;
+    private final AvailabilityRuleRepository availabilityRuleRepository;
+    private final TimeOffRepository timeOffRepository;
+    private final DoctorService doctorService;
+    private final AppointmentSeriesService appointmentSeriesService;
+
+    /**
+     * Bounded pool and queue for per-doctor slot expansion, shared by all requests; when the queue is full the
+     * request is turned away with a 503 rather than piling up behind the others
+     */
+    private final ExecutorService expansionPool = new ThreadPoolExecutor(
+            EXPANSION_THREADS, EXPANSION_THREADS, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(EXPANSION_QUEUE),
+            new ThreadFactory() {
+                private final AtomicInteger n = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "slot-expansion-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+
+    @PreDestroy
+    void shutdown() {
+        expansionPool.shutdownNow();
+    }
+
+    /**
+     * Free slots for a doctor between two UK local dates (inclusive).
+     * Rules and time-off come from the in-process caches; appointments and live holds are each loaded once per range;
+     * the interval subtraction happens in memory in {@link SlotEngine}.
+     *
+     * @param from first day, defaults to today
+     * @param to   last day, defaults to from + 6 days
+     */
+    public List<SlotDTO> getFreeSlots(String doctorId, LocalDate from, LocalDate to) {
+        LocalDate first = from != null ? from : LocalDate.now(UK_TZ);
+        LocalDate last = to != null ? to : first.plusDays(6);
+
+        if (last.isBefore(first)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(first, last) >= MAX_RANGE_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+
+        List<AvailabilityRule> rules = availabilityCache.get(doctorId).rules();
+        if (rules.isEmpty()) return List.of();
+
+        Instant rangeStart = first.atStartOfDay(UK_TZ).toInstant();
+        Instant rangeEnd = last.plusDays(1).atStartOfDay(UK_TZ).toInstant();
+
+        List<Appointment> appointments = new ArrayList<>(appointmentRepository
+                .findByDoctorIdAndStatusNotAndStartLessThanAndEndGreaterThan(doctorId, AppointmentStatus.CANCELLED, rangeEnd, rangeStart));
+        // Series occurrences past the materialization horizon are claimed but have no appointment yet
+        appointments.addAll(appointmentSeriesService.pendingOccurrences(List.of(doctorId), rangeStart, rangeEnd)
+                .getOrDefault(doctorId, List.of()));
+        List<SlotHold> holds = slotHoldRepository
+                .findByDoctorIdAndStartLessThanAndEndGreaterThanAndExpiresAtAfter(doctorId, rangeEnd, rangeStart, Instant.now());
+
+        return freeSlots(doctorId, rules, timeOffIndex.intervals(doctorId), appointmentIntervals(appointments), holdIntervals(holds),
+                first, last, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The 'limit' earliest free slots across every doctor matching the search filters.
+     * Rules, time-off, appointments and holds for the whole candidate set are loaded with one $in query each;
+     * the doctors are split into one batch per pool thread and expanded on the bounded pool, then the sorted
+     * per-doctor lists are k-way merged. A busy pool or an expansion that runs past the timeout gives a 503 rather
+     * than a result that silently leaves doctors out.
+     */
+    public List<SlotDTO> earliestSlots(DoctorSearchCriteria criteria, LocalDate from, int days, int limit) {
+        LocalDate first = from != null ? from : LocalDate.now(UK_TZ);
+        if (days < 1 || days > MAX_RANGE_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "days must be between 1 and " + MAX_RANGE_DAYS);
+        }
+        int wanted = Math.max(1, Math.min(limit, MAX_EARLIEST));
+        LocalDate last = first.plusDays(days - 1);
+
+        List<String> doctorIds = doctorService.candidateIds(criteria, MAX_CANDIDATES);
+        if (doctorIds.isEmpty()) return List.of();
+
+        Instant rangeStart = first.atStartOfDay(UK_TZ).toInstant();
+        Instant rangeEnd = last.plusDays(1).atStartOfDay(UK_TZ).toInstant();
+
+        Map<String, List<AvailabilityRule>> rules = availabilityRuleRepository.findByDoctorIdIn(doctorIds).stream()
+                .collect(Collectors.groupingBy(AvailabilityRule::getDoctorId));
+        Map<String, List<TimeOff>> offs = timeOffRepository
+                .findByDoctorIdInAndStartLessThanAndEndGreaterThan(doctorIds, rangeEnd, rangeStart).stream()
+                .collect(Collectors.groupingBy(TimeOff::getDoctorId));
+        Map<String, List<Appointment>> booked = appointmentRepository
+                .findByDoctorIdInAndStatusNotAndStartLessThanAndEndGreaterThan(doctorIds, AppointmentStatus.CANCELLED, rangeEnd, rangeStart).stream()
+                .collect(Collectors.groupingBy(Appointment::getDoctorId));
+        appointmentSeriesService.pendingOccurrences(doctorIds, rangeStart, rangeEnd)
+                .forEach((id, pending) -> booked.computeIfAbsent(id, k -> new ArrayList<>()).addAll(pending));
+        Map<String, List<SlotHold>> held = slotHoldRepository
+                .findByDoctorIdInAndStartLessThanAndEndGreaterThanAndExpiresAtAfter(doctorIds, rangeEnd, rangeStart, Instant.now()).stream()
+                .collect(Collectors.groupingBy(SlotHold::getDoctorId));
+
+        List<String> withRules = doctorIds.stream()
+                .filter(id -> rules.containsKey(id) && !rules.get(id).isEmpty())
+                .toList();
+        if (withRules.isEmpty()) return List.of();
+
+        // No doctor can contribute more than 'wanted' slots to the result, so stop each expansion there
+        int batchSize = (withRules.size() + EXPANSION_THREADS - 1) / EXPANSION_THREADS;
+        List<Callable<List<List<SlotDTO>>>> tasks = new ArrayList<>();
+        for (int i = 0; i < withRules.size(); i += batchSize) {
+            List<String> batch = withRules.subList(i, Math.min(i + batchSize, withRules.size()));
+            tasks.add(() -> {
+                List<List<SlotDTO>> slots = new ArrayList<>(batch.size());
+                for (String doctorId : batch) {
+                    slots.add(freeSlots(doctorId, rules.get(doctorId),
+                            timeOffIntervals(offs.getOrDefault(doctorId, List.of())),
+                            appointmentIntervals(booked.getOrDefault(doctorId, List.of())),
+                            holdIntervals(held.getOrDefault(doctorId, List.of())),
+                            first, last, wanted));
+                }
+                return slots;
+            });
+        }
+
+        List<List<SlotDTO>> perDoctor = new ArrayList<>(withRules.size());
+        try {
+            for (Future<List<List<SlotDTO>>> f : expansionPool.invokeAll(tasks, EXPANSION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (f.isCancelled()) {
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Slot search timed out, please retry");
+                }
+                perDoctor.addAll(f.get());
+            }
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Slot search is busy, please retry");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Slot search interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Slot expansion failed", e.getCause());
+        }
+
+        return mergeEarliest(perDoctor, wanted);
+    }
+
+    /**
+     * k-way merge of per-doctor lists that are each sorted by start: a heap holds one head per list.
+     */
+    static List<SlotDTO> mergeEarliest(List<List<SlotDTO>> sortedLists, int limit) {
+        PriorityQueue<PeekingIterator> heads = new PriorityQueue<>(Math.max(1, sortedLists.size()),
+                Comparator.comparing((PeekingIterator it) -> it.peek().getStart())
+                        .thenComparing(it -> it.peek().getDoctorId()));
+        for (List<SlotDTO> list : sortedLists) {
+            if (!list.isEmpty()) heads.add(new PeekingIterator(list.iterator()));
+        }
+
+        List<SlotDTO> merged = new ArrayList<>(limit);
+        while (merged.size() < limit && !heads.isEmpty()) {
+            PeekingIterator head = heads.poll();
+            merged.add(head.next());
+            if (head.hasNext()) heads.add(head);
+        }
+        return merged;
+    }
+
+    private static final class PeekingIterator implements Iterator<SlotDTO> {
+        private final Iterator<SlotDTO> source;
+        private SlotDTO next;
+
+        private PeekingIterator(Iterator<SlotDTO> source) {
+            this.source = source;
+            this.next = source.hasNext() ? source.next() : null;
+        }
+
+        SlotDTO peek() {
+            return next;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public SlotDTO next() {
+            SlotDTO current = next;
+            next = source.hasNext() ? source.next() : null;
+            return current;
+        }
+    }
+
+    /**
+     * Free slots from already-loaded data. Slots starting in the past are skipped.
+     *
+     * @param limit stop after this many free slots
+     */
+    public List<SlotDTO> freeSlots(String doctorId,
+                                   List<AvailabilityRule> rules,
+                                   IntervalSet timeOff,
+                                   IntervalSet booked,
+                                   IntervalSet held,
+                                   LocalDate from,
+                                   LocalDate to,
+                                   int limit) {
+        Instant now = Instant.now();
+        List<SlotDTO> result = new ArrayList<>();
+
+        SlotEngine.expand(rules, timeOff, booked, held, from, to, (start, end, state) -> {
+            if (state == SlotEngine.SlotState.FREE && start.isAfter(now)) {
+                result.add(SlotDTO.builder().doctorId(doctorId).start(start).end(end).build());
+            }
+            return result.size() < limit;
+        });
+        return result;
+    }
+
+    public static IntervalSet timeOffIntervals(List<TimeOff> offs) {
+        IntervalSet.Builder builder = IntervalSet.builder();
+        for (TimeOff off : offs) {
+            builder.add(off.getStart().toEpochMilli(), off.getEnd().toEpochMilli());
+        }
+        return builder.build();
+    }
+
+    public static IntervalSet appointmentIntervals(List<Appointment> appointments) {
+        IntervalSet.Builder builder = IntervalSet.builder();
+        for (Appointment a : appointments) {
+            if (a.getStatus() == AppointmentStatus.CANCELLED) continue;
+            builder.add(a.getStart().toEpochMilli(), a.getEnd().toEpochMilli());
+        }
+        return builder.build();
+    }
+
+    public static IntervalSet holdIntervals(List<SlotHold> holds) {
+        Instant now = Instant.now();
+        IntervalSet.Builder builder = IntervalSet.builder();
+        for (SlotHold h : holds) {
+            if (h.getExpiresAt() != null && h.getExpiresAt().isAfter(now)) {
+                builder.add(h.getStart().toEpochMilli(), h.getEnd().toEpochMilli());
+            }
+        }
+        return builder.build();
+    }
+}
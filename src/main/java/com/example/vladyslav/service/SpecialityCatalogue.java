@@ -0,0 +1,121 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.model.Speciality;
+import com.example.vladyslav.repository.SpecialityRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * All specialities held in memory as one immutable snapshot, so reads never touch Mongo.
+ * The snapshot is swapped in one write: after {@link SpecialityService#createSpeciality} on this node,
+ * and on a fixed delay to pick up specialities created on other nodes.
+ */
+@Component
+@RequiredArgsConstructor
+public class SpecialityCatalogue {
+
+    private final SpecialityRepository specialityRepository;
+
+    private volatile Snapshot snapshot;
+
+    public List<Speciality> all() {
+        return List.of(snapshot().sorted);
+    }
+
+    public Optional<Speciality> byId(String id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(snapshot().byId.get(id));
+    }
+
+    /**
+     * Exact title match, like the repository's findByTitle
+     */
+    public Optional<Speciality> byTitle(String title) {
+        return title == null ? Optional.empty() : Optional.ofNullable(snapshot().byTitle.get(title));
+    }
+
+    /**
+     * Case-insensitive prefix match, in title order
+     */
+    public List<Speciality> byPrefix(String prefix, int limit) {
+        Snapshot s = snapshot();
+        TrieNode node = s.root;
+        for (char ch : fold(prefix).toCharArray()) {
+            node = node.children.get(ch);
+            if (node == null) return List.of();
+        }
+        return List.of(Arrays.copyOfRange(s.sorted, node.from, Math.min(node.to, node.from + limit)));
+    }
+
+    @Scheduled(fixedDelayString = "${app.speciality.refresh-ms:60000}")
+    public void refresh() {
+        snapshot = Snapshot.of(specialityRepository.findAll());
+    }
+
+    private Snapshot snapshot() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            refresh();
+            s = snapshot;
+        }
+        return s;
+    }
+
+    private static String fold(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Snapshot {
+        private final Speciality[] sorted;
+        private final Map<String, Speciality> byId;
+        private final Map<String, Speciality> byTitle;
+        private final TrieNode root;
+
+        private Snapshot(Speciality[] sorted, Map<String, Speciality> byId, Map<String, Speciality> byTitle, TrieNode root) {
+            this.sorted = sorted;
+            this.byId = byId;
+            this.byTitle = byTitle;
+            this.root = root;
+        }
+
+        static Snapshot of(List<Speciality> specialities) {
+            Speciality[] sorted = specialities.stream()
+                    .filter(s -> s.getTitle() != null)
+                    .sorted(Comparator.comparing((Speciality s) -> fold(s.getTitle())).thenComparing(Speciality::getTitle))
+                    .toArray(Speciality[]::new);
+
+            Map<String, Speciality> byId = new HashMap<>();
+            Map<String, Speciality> byTitle = new HashMap<>();
+            TrieNode root = new TrieNode();
+            root.from = 0;
+            root.to = sorted.length;
+            for (int i = 0; i < sorted.length; i++) {
+                byId.put(sorted[i].getId(), sorted[i]);
+                byTitle.putIfAbsent(sorted[i].getTitle(), sorted[i]);
+
+                // Sorting by the folded title makes every prefix a contiguous range [from, to) of 'sorted'
+                TrieNode node = root;
+                for (char ch : fold(sorted[i].getTitle()).toCharArray()) {
+                    node = node.children.computeIfAbsent(ch, c -> new TrieNode());
+                    if (node.from < 0) node.from = i;
+                    node.to = i + 1;
+                }
+            }
+            return new Snapshot(sorted, Map.copyOf(byId), Map.copyOf(byTitle), root);
+        }
+    }
+
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private int from = -1;
+        private int to = -1;
+    }
+}
@@ -3,9 +3,6 @@ package com.example.vladyslav.service;
 import com.example.vladyslav.model.Speciality;
 import com.example.vladyslav.repository.SpecialityRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -16,8 +13,11 @@ public class SpecialityService {
     @Autowired
     private SpecialityRepository specialityRepository;
 
+    @Autowired
+    private SpecialityCatalogue specialityCatalogue;
+
     public List<Speciality> getAll(){
-        return specialityRepository.findAll();
+        return specialityCatalogue.all();
     }
 
     public Speciality createSpeciality(Speciality speciality){
@@ -48,15 +48,17 @@ public class SpecialityService {
 
 
 
-        return specialityRepository.save(newSpeciality);
+        Speciality saved = specialityRepository.save(newSpeciality);
+        specialityCatalogue.refresh();
+        return saved;
     }
 
     public Speciality getSpecialityById(String specialityId){
-        return specialityRepository.findById(specialityId).orElseThrow(()-> new RuntimeException("Speciality not found!"));
+        return specialityCatalogue.byId(specialityId).orElseThrow(()-> new RuntimeException("Speciality not found!"));
     }
 
     public Speciality getSpecialityByTitle(String title){
-        return specialityRepository.findByTitle(title).orElseThrow(()-> new RuntimeException("Speciality not found by title: " + title));
+        return specialityCatalogue.byTitle(title).orElseThrow(()-> new RuntimeException("Speciality not found by title: " + title));
     }
 
     /**
@@ -68,7 +70,8 @@ public class SpecialityService {
      * @param limit Max number of results returned. It caps it at 25 for safety.
      *
      * @return      A sorted (asc by title) list of at most 'limit' specialities
-     *              whose titles starts with the given query (case-sensitive).
+     *              whose titles starts with the given query (case-insensitive),
+     *              served from the in-memory catalogue.
      *
      */
     public List<Speciality> searchByPrefix(String q, int limit) {
@@ -81,12 +84,8 @@ public class SpecialityService {
         // Defensive limit: avoid returning/processing too many items
         int safeLimit = Math.max(1, Math.min(limit, 25));
 
-        // Page first N results, alphabetically by title for stable UX
-        Pageable page = PageRequest.of(0, safeLimit, Sort.by("title").ascending());
-
-        // Delegate to Spring Data: users 'findByTitleStartsWithIgnoreCase' which maps
-        // to a case-insensitive prefix query on the 'title' field.
-        return specialityRepository.findByTitleStartsWithIgnoreCase(query, page);
+        // Trie walk over the catalogue snapshot, alphabetically by title for stable UX
+        return specialityCatalogue.byPrefix(query, safeLimit);
     }
 
 
@@ -0,0 +1,199 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.model.TimeOff;
+import com.example.vladyslav.repository.TimeOffRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-doctor sorted time-off intervals held in primitive epoch-millis arrays.
+ * Overlap is one binary search over the starts plus a prefix maximum of the ends, so intervals do not have
+ * to be merged and single entries can still be removed by id.
+ * Loaded lazily, kept in step by {@link TimeOffService}, bounded to the most recently used doctors and
+ * reloaded after a few minutes to pick up writes from other nodes.
+ * <p>
+ * Only time-off that had not ended at load time is held, so answers are for the present and future.
+ * Writers bump a per-doctor version stripe before and after the write, as {@link DoctorCache} does; a load
+ * that started before either bump is used for that one read but not stored, so it cannot hide the write.
+ */
+@Component
+@RequiredArgsConstructor
+public class TimeOffIndex {
+
+    private static final int MAX_DOCTORS = 10_000;
+    private static final long MAX_AGE_MILLIS = 5 * 60 * 1000L;
+    private static final int VERSION_STRIPES = 1024;
+
+    private final TimeOffRepository timeOffRepository;
+
+    private final Map<String, Entry> byDoctor = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > MAX_DOCTORS;
+                }
+            });
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    /**
+     * Half-open like {@link SlotEngine} and {@link IntervalSet}: ranges that only touch do not overlap, so a slot
+     * ending when the time-off starts stays bookable.
+     */
+    public boolean overlaps(String doctorId, Instant start, Instant end) {
+        return entry(doctorId).overlaps(start.toEpochMilli(), end.toEpochMilli());
+    }
+
+    /**
+     * The doctor's current intervals; immutable, so a caller can run several checks against one read
+     */
+    Entry snapshot(String doctorId) {
+        return entry(doctorId);
+    }
+
+    public IntervalSet intervals(String doctorId) {
+        Entry entry = entry(doctorId);
+        IntervalSet.Builder builder = IntervalSet.builder();
+        for (int i = 0; i < entry.starts.length; i++) builder.add(entry.starts[i], entry.ends[i]);
+        return builder.build();
+    }
+
+    /**
+     * Called before a doctor's time-off is written, so a load already reading the old state is not stored
+     */
+    public void beforeWrite(String doctorId) {
+        versions.incrementAndGet(stripe(doctorId));
+    }
+
+    public void added(TimeOff timeOff) {
+        synchronized (byDoctor) {
+            versions.incrementAndGet(stripe(timeOff.getDoctorId()));
+            byDoctor.computeIfPresent(timeOff.getDoctorId(), (id, entry) -> entry.with(timeOff));
+        }
+    }
+
+    public void removed(TimeOff timeOff) {
+        synchronized (byDoctor) {
+            versions.incrementAndGet(stripe(timeOff.getDoctorId()));
+            byDoctor.computeIfPresent(timeOff.getDoctorId(), (id, entry) -> entry.without(timeOff.getId()));
+        }
+    }
+
+    private Entry entry(String doctorId) {
+        Entry entry = byDoctor.get(doctorId);
+        if (entry == null || System.currentTimeMillis() - entry.loadedAt > MAX_AGE_MILLIS) {
+            long version = versions.get(stripe(doctorId));
+            entry = Entry.of(timeOffRepository.findByDoctorIdAndEndGreaterThanEqual(doctorId, Instant.now()));
+            synchronized (byDoctor) {
+                // Skip storing if a writer touched this doctor while we were loading
+                if (versions.get(stripe(doctorId)) == version) byDoctor.put(doctorId, entry);
+            }
+        }
+        return entry;
+    }
+
+    private static int stripe(String doctorId) {
+        return (doctorId.hashCode() & 0x7fffffff) % VERSION_STRIPES;
+    }
+
+    /**
+     * Immutable; updates build a new copy, so readers never need the map lock for the search itself.
+     */
+    static final class Entry {
+        private final String[] ids;
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] maxEnd;
+        private final long loadedAt;
+
+        private Entry(String[] ids, long[] starts, long[] ends, long loadedAt) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.loadedAt = loadedAt;
+            this.maxEnd = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnd[i] = max;
+            }
+        }
+
+        static Entry of(List<TimeOff> offs) {
+            TimeOff[] sorted = offs.stream()
+                    .filter(t -> t.getStart() != null && t.getEnd() != null)
+                    .sorted((a, b) -> a.getStart().compareTo(b.getStart()))
+                    .toArray(TimeOff[]::new);
+
+            String[] ids = new String[sorted.length];
+            long[] starts = new long[sorted.length];
+            long[] ends = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                ids[i] = sorted[i].getId();
+                starts[i] = sorted[i].getStart().toEpochMilli();
+                ends[i] = sorted[i].getEnd().toEpochMilli();
+            }
+            return new Entry(ids, starts, ends, System.currentTimeMillis());
+        }
+
+        boolean overlaps(long start, long end) {
+            // Last interval starting before 'end'; any earlier one reaching past 'start' overlaps
+            int lo = 0, hi = starts.length - 1, last = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] < end) {
+                    last = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return last >= 0 && maxEnd[last] > start;
+        }
+
+        Entry with(TimeOff timeOff) {
+            // A load that raced the write may already hold it
+            if (Arrays.asList(ids).contains(timeOff.getId())) return this;
+            long s = timeOff.getStart().toEpochMilli();
+            int at = 0;
+            while (at < starts.length && starts[at] <= s) at++;
+
+            String[] newIds = new String[ids.length + 1];
+            long[] newStarts = new long[starts.length + 1];
+            long[] newEnds = new long[ends.length + 1];
+            System.arraycopy(ids, 0, newIds, 0, at);
+            System.arraycopy(starts, 0, newStarts, 0, at);
+            System.arraycopy(ends, 0, newEnds, 0, at);
+            newIds[at] = timeOff.getId();
+            newStarts[at] = s;
+            newEnds[at] = timeOff.getEnd().toEpochMilli();
+            System.arraycopy(ids, at, newIds, at + 1, ids.length - at);
+            System.arraycopy(starts, at, newStarts, at + 1, starts.length - at);
+            System.arraycopy(ends, at, newEnds, at + 1, ends.length - at);
+            return new Entry(newIds, newStarts, newEnds, loadedAt);
+        }
+
+        Entry without(String id) {
+            int at = Arrays.asList(ids).indexOf(id);
+            if (at < 0) return this;
+
+            String[] newIds = new String[ids.length - 1];
+            long[] newStarts = new long[starts.length - 1];
+            long[] newEnds = new long[ends.length - 1];
+            System.arraycopy(ids, 0, newIds, 0, at);
+            System.arraycopy(starts, 0, newStarts, 0, at);
+            System.arraycopy(ends, 0, newEnds, 0, at);
+            System.arraycopy(ids, at + 1, newIds, at, ids.length - at - 1);
+            System.arraycopy(starts, at + 1, newStarts, at, starts.length - at - 1);
+            System.arraycopy(ends, at + 1, newEnds, at, ends.length - at - 1);
+            return new Entry(newIds, newStarts, newEnds, loadedAt);
+        }
+    }
+}
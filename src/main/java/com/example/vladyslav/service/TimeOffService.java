@@ -12,13 +12,13 @@ import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.LocalDate;
-import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class TimeOffService {
 
     private final TimeOffRepository timeOffRepository;
+    private final TimeOffIndex timeOffIndex;
 
     public TimeOff get(String id){
         return timeOffRepository.findById(id)
@@ -35,17 +35,21 @@ public class TimeOffService {
     public TimeOff create(TimeOff timeOff) {
         validate(timeOff);
         // Optional: check for overlapping time-off for same doctor
-        List<TimeOff> overlaps = timeOffRepository
-                .findByDoctorIdAndStartLessThanEqualAndEndGreaterThanEqual(
-                        timeOff.getDoctorId(), timeOff.getEnd(), timeOff.getStart());
-        if(!overlaps.isEmpty()) {
+        if(timeOffIndex.overlaps(timeOff.getDoctorId(), timeOff.getStart(), timeOff.getEnd())) {
             throw new OurException("Overlapping time-off exist for this doctor.");
         }
-        return timeOffRepository.save(timeOff);
+        timeOffIndex.beforeWrite(timeOff.getDoctorId());
+        TimeOff saved = timeOffRepository.save(timeOff);
+        timeOffIndex.added(saved);
+        return saved;
     }
 
     public void delete(String id){
-        timeOffRepository.deleteById(id);
+        timeOffRepository.findById(id).ifPresent(timeOff -> {
+            timeOffIndex.beforeWrite(timeOff.getDoctorId());
+            timeOffRepository.deleteById(id);
+            timeOffIndex.removed(timeOff);
+        });
     }
 
     public void validate(TimeOff timeOff){
@@ -0,0 +1,109 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.model.AvailabilityRule;
+import com.example.vladyslav.model.Window;
+
+import java.util.List;
+
+/**
+ * A doctor's seven {@link AvailabilityRule}s compiled into one bitmap of 5-minute units per weekday.
+ * A set bit means an appointment may occupy that unit: it is inside working hours, outside every break,
+ * and far enough from both so the rule's buffers fit. Checking a booking is a handful of word masks.
+ */
+public final class WeeklyAvailability {
+
+    public static final int UNIT_MINUTES = 5;
+
+    private static final int UNITS_PER_DAY = 24 * 60 / UNIT_MINUTES;
+    private static final int WORDS_PER_DAY = (UNITS_PER_DAY + 63) / 64;
+
+    // Indexed by ISO day-of-week 1..7, slot 0 unused
+    private final long[] bookable = new long[8 * WORDS_PER_DAY];
+    private final AvailabilityRule[] rules = new AvailabilityRule[8];
+    private final List<AvailabilityRule> ruleList;
+    private final long compiledAt = System.currentTimeMillis();
+
+    private WeeklyAvailability(List<AvailabilityRule> ruleList) {
+        this.ruleList = List.copyOf(ruleList);
+    }
+
+    public static WeeklyAvailability compile(List<AvailabilityRule> rules) {
+        WeeklyAvailability week = new WeeklyAvailability(rules);
+        for (AvailabilityRule rule : rules) {
+            int dow = rule.getDayOfWeek();
+            if (dow < 1 || dow > 7 || rule.getStart() == null || rule.getEnd() == null) continue;
+            week.rules[dow] = rule;
+            week.compileDay(dow, rule);
+        }
+        return week;
+    }
+
+    private void compileDay(int dow, AvailabilityRule rule) {
+        boolean[] working = new boolean[UNITS_PER_DAY];
+
+        // Partial units at the edges are not bookable
+        int from = ceilUnit(SlotEngine.minuteOfDay(rule.getStart()));
+        int to = floorUnit(SlotEngine.minuteOfDay(rule.getEnd()));
+        for (int u = from; u < to; u++) working[u] = true;
+
+        if (rule.getBreaks() != null) {
+            for (Window w : rule.getBreaks()) {
+                if (w == null || w.getStartBreak() == null || w.getEndBreak() == null) continue;
+                int bs = floorUnit(SlotEngine.minuteOfDay(w.getStartBreak()));
+                int be = ceilUnit(SlotEngine.minuteOfDay(w.getEndBreak()));
+                for (int u = Math.max(0, bs); u < Math.min(UNITS_PER_DAY, be); u++) working[u] = false;
+            }
+        }
+
+        // Erode by the buffers: unit u is bookable only if [u - before, u + after] is all working time
+        int before = ceilUnit(Math.max(0, rule.getBufferBeforeMinutes()));
+        int after = ceilUnit(Math.max(0, rule.getBufferAfterMinutes()));
+        int base = dow * WORDS_PER_DAY;
+        for (int u = 0; u < UNITS_PER_DAY; u++) {
+            boolean ok = true;
+            for (int k = u - before; ok && k <= u + after; k++) {
+                ok = k >= 0 && k < UNITS_PER_DAY && working[k];
+            }
+            if (ok) bookable[base + (u >>> 6)] |= 1L << (u & 63);
+        }
+    }
+
+    public AvailabilityRule rule(int isoDayOfWeek) {
+        return rules[isoDayOfWeek];
+    }
+
+    public List<AvailabilityRule> rules() {
+        return ruleList;
+    }
+
+    public boolean isOlderThan(long maxAgeMillis) {
+        return System.currentTimeMillis() - compiledAt > maxAgeMillis;
+    }
+
+    /**
+     * True if every unit touched by [startMinute, endMinute) of that weekday is bookable.
+     */
+    public boolean covers(int isoDayOfWeek, int startMinute, int endMinute) {
+        int from = floorUnit(startMinute);
+        int to = Math.min(UNITS_PER_DAY, ceilUnit(endMinute));
+        if (rules[isoDayOfWeek] == null || from >= to) return false;
+
+        int base = isoDayOfWeek * WORDS_PER_DAY;
+        for (int u = from; u < to; ) {
+            int bit = u & 63;
+            int n = Math.min(64 - bit, to - u);
+            long mask = (n == 64 ? -1L : (1L << n) - 1) << bit;
+            if ((bookable[base + (u >>> 6)] & mask) != mask) return false;
+            u += n;
+        }
+        return true;
+    }
+
+    private static int floorUnit(int minutes) {
+        return minutes / UNIT_MINUTES;
+    }
+
+    private static int ceilUnit(int minutes) {
+        return (minutes + UNIT_MINUTES - 1) / UNIT_MINUTES;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.model.Appointment;
+import com.example.vladyslav.model.enums.AppointmentStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppointmentExportWriterTest {
+
+    private static final int ROWS = 1_000_000;
+
+    @Test
+    void exportsAMillionRowsWithoutHoldingThem() throws Exception {
+        LineCounter sink = new LineCounter();
+        List<WeakReference<Appointment>> sampled = new ArrayList<>();
+
+        long written = new AppointmentExportWriter(sink, AppointmentExportWriter.Format.CSV)
+                .writeAll(synthetic(ROWS, a -> sampled.add(new WeakReference<>(a))));
+
+        assertEquals(ROWS, written);
+        assertEquals(ROWS + 1, sink.lines); // header + rows
+        assertTrue(sink.bytes > ROWS * 50L);
+
+        // Every written row must be collectable; a writer that buffered them would keep these alive
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (sampled.stream().anyMatch(ref -> ref.get() != null) && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertTrue(sampled.stream().allMatch(ref -> ref.get() == null), "written rows are still reachable");
+    }
+
+    @Test
+    void exportsAMillionNdjsonRows() throws IOException {
+        LineCounter sink = new LineCounter();
+
+        long written = new AppointmentExportWriter(sink, AppointmentExportWriter.Format.NDJSON).writeAll(synthetic(ROWS));
+
+        assertEquals(ROWS, written);
+        assertEquals(ROWS, sink.lines);
+    }
+
+    @Test
+    void escapesCsvAndJson() throws IOException {
+        Appointment a = Appointment.builder()
+                .id("a,1")
+                .doctorId("d\"1")
+                .start(Instant.parse("2025-03-03T09:00:00Z"))
+                .status(AppointmentStatus.SCHEDULED)
+                .build();
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        new AppointmentExportWriter(csv, AppointmentExportWriter.Format.CSV).writeAll(List.of(a).iterator());
+        assertEquals("\"a,1\",\"d\"\"1\",,,2025-03-03T09:00:00Z,,SCHEDULED,,",
+                csv.toString(StandardCharsets.UTF_8).split("\n")[1]);
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        new AppointmentExportWriter(json, AppointmentExportWriter.Format.NDJSON).writeAll(List.of(a).iterator());
+        assertTrue(json.toString(StandardCharsets.UTF_8).startsWith("{\"id\":\"a,1\",\"doctorId\":\"d\\\"1\",\"patientId\":null"));
+    }
+
+    private static Iterator<Appointment> synthetic(int count) {
+        return synthetic(count, a -> { });
+    }
+
+    /**
+     * Generates rows lazily, like a database cursor would; every 100,000th row is also passed to 'sample'
+     */
+    private static Iterator<Appointment> synthetic(int count, Consumer<Appointment> sample) {
+        Instant base = Instant.parse("2025-01-01T09:00:00Z");
+        return new Iterator<>() {
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < count;
+            }
+
+            @Override
+            public Appointment next() {
+                if (i >= count) throw new NoSuchElementException();
+                Instant start = base.plusSeconds(i * 900L);
+                Appointment a = Appointment.builder()
+                        .id(String.format("%024x", i))
+                        .doctorId("doctor-" + (i % 50))
+                        .patientId("patient-" + i)
+                        .clinicId("clinic-1")
+                        .start(start)
+                        .end(start.plusSeconds(900))
+                        .status(AppointmentStatus.SCHEDULED)
+                        .build();
+                if (i % 100_000 == 0) sample.accept(a);
+                i++;
+                return a;
+            }
+        };
+    }
+
+    private static final class LineCounter extends OutputStream {
+        private long lines;
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') lines++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') lines++;
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.vladyslav.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingGateTest {
+
+    private static final String DOCTOR = "doctor-1";
+    private static final Instant TEN = Instant.parse("2030-01-07T10:00:00Z");
+
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    void rejectsWhenTheStripeQueueIsFull() throws Exception {
+        BookingGate gate = new BookingGate(true, 1, 1, 5_000, 60);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = holdLock(gate, TEN, release);
+        Future<?> waiter = threads.submit(() -> gate.run(DOCTOR, at(30), at(45), null, () -> "second"));
+        awaitQueueDepth(gate, 1);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> gate.run(DOCTOR, at(60), at(75), null, () -> "third"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getStatusCode().value());
+        assertEquals(1, gate.stats().getRejectedQueueFull());
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        waiter.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void givesUpAfterTheLockTimeout() throws Exception {
+        BookingGate gate = new BookingGate(true, 1, 8, 50, 60);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = holdLock(gate, TEN, release);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> gate.run(DOCTOR, at(30), at(45), null, () -> "late"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getStatusCode().value());
+        assertEquals(1, gate.stats().getTimedOut());
+        assertEquals(0, gate.stats().getQueueDepth());
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void rechecksOccupancyOnceTheLockIsHeld() throws Exception {
+        BookingGate gate = new BookingGate(true, 1, 8, 5_000, 60);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = holdLock(gate, TEN, release);
+
+        // Arrives while the slot is still free, so it passes the first check and queues behind the holder
+        AtomicBoolean secondWrote = new AtomicBoolean();
+        Future<?> second = threads.submit(() -> gate.run(DOCTOR, TEN, at(15), null, () -> {
+            secondWrote.set(true);
+            return "second";
+        }));
+        awaitQueueDepth(gate, 1);
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+
+        Exception e = assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+        ResponseStatusException cause = assertInstanceOf(ResponseStatusException.class, e.getCause());
+        assertEquals(HttpStatus.CONFLICT.value(), cause.getStatusCode().value());
+        assertFalse(secondWrote.get());
+        assertEquals(1, gate.stats().getAdmitted());
+        assertEquals(1, gate.stats().getRejectedOccupied());
+    }
+
+    @Test
+    void conflictFromTheClaimIndexDoesNotBlockNeighbours() {
+        BookingGate gate = new BookingGate(true, 1, 8, 5_000, 60);
+
+        assertThrows(ResponseStatusException.class, () -> gate.run(DOCTOR, TEN, at(30), null, () -> {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "taken");
+        }));
+
+        assertEquals("free", gate.run(DOCTOR, at(15), at(20), null, () -> "free"));
+        assertEquals(1, gate.stats().getConflicts());
+        assertEquals(0, gate.stats().getRejectedOccupied());
+    }
+
+    @Test
+    void releasedSlotIsBookableAgain() {
+        BookingGate gate = new BookingGate(true, 1, 8, 5_000, 60);
+        gate.run(DOCTOR, TEN, at(30), null, () -> "first");
+        assertThrows(ResponseStatusException.class, () -> gate.run(DOCTOR, at(10), at(20), null, () -> "second"));
+
+        gate.released(DOCTOR, TEN, at(30));
+
+        assertEquals("third", gate.run(DOCTOR, at(10), at(20), null, () -> "third"));
+    }
+
+    /**
+     * Books [start, start + 15m) on another thread and keeps the doctor's lock until {@code release} opens
+     */
+    private Future<?> holdLock(BookingGate gate, Instant start, CountDownLatch release) throws InterruptedException {
+        CountDownLatch inWrite = new CountDownLatch(1);
+        Future<?> holder = threads.submit(() -> gate.run(DOCTOR, start, start.plusSeconds(15 * 60), null, () -> {
+            inWrite.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "holder";
+        }));
+        assertTrue(inWrite.await(5, TimeUnit.SECONDS));
+        return holder;
+    }
+
+    private static void awaitQueueDepth(BookingGate gate, int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (gate.stats().getQueueDepth() < depth) {
+            assertTrue(System.currentTimeMillis() < deadline, "queue never reached " + depth);
+            Thread.sleep(5);
+        }
+    }
+
+    private static Instant at(int minutesAfterTen) {
+        return TEN.plusSeconds(minutesAfterTen * 60L);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.dto.DoctorDTO;
+import com.example.vladyslav.model.enums.LanguageCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class DoctorCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesRepeatReadsFromMemory() {
+        DoctorCache cache = new DoctorCache(10, 300, null);
+
+        cache.get("a", loader("a"));
+        cache.get("a", loader("a"));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().getHits());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntryForAMoreFrequentKey() {
+        DoctorCache cache = new DoctorCache(2, 300, null);
+        cache.get("a", loader("a"));
+        cache.get("b", loader("b"));
+        cache.get("a", loader("a")); // b is now the eldest
+
+        cache.get("c", loader("c"));
+        cache.get("c", loader("c")); // seen more often than b, so it replaces b
+
+        loads.set(0);
+        cache.get("a", loader("a"));
+        cache.get("c", loader("c"));
+        assertEquals(0, loads.get());
+        cache.get("b", loader("b"));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    void rejectsOneOffKeysWhenFull() {
+        DoctorCache cache = new DoctorCache(2, 300, null);
+        for (int i = 0; i < 3; i++) {
+            cache.get("a", loader("a"));
+            cache.get("b", loader("b"));
+        }
+
+        cache.get("once", loader("once"));
+
+        assertEquals(1, cache.stats().getRejections());
+        assertEquals(2, cache.stats().getSize());
+        loads.set(0);
+        cache.get("a", loader("a"));
+        cache.get("b", loader("b"));
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void reloadsAfterTheTtl() {
+        DoctorCache cache = new DoctorCache(10, 0, null);
+
+        cache.get("a", loader("a"));
+        cache.get("a", loader("a"));
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.stats().getExpirations());
+    }
+
+    @Test
+    void invalidationDuringALoadKeepsTheLoadOutOfTheCache() {
+        DoctorCache cache = new DoctorCache(10, 300, null);
+
+        // A writer invalidates while this reader is still loading the old profile
+        cache.get("a", () -> {
+            DoctorDTO stale = loader("a").get();
+            cache.invalidate("a");
+            return stale;
+        });
+        cache.get("a", loader("a"));
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.stats().getHits());
+    }
+
+    @Test
+    void callersCannotChangeTheCachedProfile() {
+        DoctorCache cache = new DoctorCache(10, 300, null);
+        DoctorDTO loaded = cache.get("a", loader("a"));
+        loaded.setFirstName("changed");
+        loaded.getLanguages().clear();
+
+        DoctorDTO first = cache.get("a", loader("a"));
+        first.setBio("changed");
+        DoctorDTO second = cache.get("a", loader("a"));
+
+        assertNotSame(first, second);
+        assertEquals("first-a", second.getFirstName());
+        assertEquals("bio", second.getBio());
+        assertEquals(1, second.getLanguages().size());
+    }
+
+    @Test
+    void secondTierIsSharedBetweenNodes() {
+        LocalDoctorCacheTier tier = new LocalDoctorCacheTier(100);
+        DoctorCache nodeA = new DoctorCache(10, 300, tier);
+        DoctorCache nodeB = new DoctorCache(10, 300, tier);
+
+        nodeA.get("a", loader("a"));
+        nodeB.get("a", loader("a"));
+        assertEquals(1, loads.get());
+        assertEquals(1, nodeB.stats().getSecondTierHits());
+
+        nodeA.invalidate("a");
+        new DoctorCache(10, 300, tier).get("a", loader("a"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void otherNodesDropTheirCopyAfterTheLocalTtl() {
+        LocalDoctorCacheTier tier = new LocalDoctorCacheTier(100);
+        DoctorCache nodeA = new DoctorCache(10, 300, 0, tier);
+        DoctorCache nodeB = new DoctorCache(10, 300, 0, tier);
+        nodeB.get("a", loader("a"));
+
+        // The edit on node A evicts the shared tier but cannot reach node B's first level
+        nodeA.invalidate("a");
+        nodeB.get("a", loader("a"));
+
+        assertEquals(2, loads.get());
+        assertEquals(0, nodeB.stats().getHits());
+    }
+
+    private Supplier<DoctorDTO> loader(String id) {
+        return () -> {
+            loads.incrementAndGet();
+            return DoctorDTO.builder()
+                    .id(id)
+                    .firstName("first-" + id)
+                    .bio("bio")
+                    .languages(new ArrayList<>(List.of(LanguageCode.values()[0])))
+                    .build();
+        };
+    }
+}
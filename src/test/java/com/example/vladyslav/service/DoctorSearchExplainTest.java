@@ -0,0 +1,99 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.model.DoctorSearchView;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the query plans of the search modes: each must be answered from an index, never a collection scan.
+ * Runs against its own database so seeded documents never mix with, or are cleaned up from, real data.
+ */
+@SpringBootTest(properties = "spring.data.mongodb.database=" + DoctorSearchExplainTest.DATABASE)
+class DoctorSearchExplainTest {
+
+    static final String DATABASE = "medikart_explain_test";
+
+
+    private static final String ID_PREFIX = "explain-test-";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < 50; i++) {
+            String first = i % 2 == 0 ? "John" : "Joanna";
+            String last = "Smith" + i;
+            mongoTemplate.save(DoctorSearchView.builder()
+                    .id(ID_PREFIX + i)
+                    .firstName(first)
+                    .lastName(last)
+                    .nameTokens(DoctorSearchIndexer.nameTokens(first, last))
+                    .firstNameKey(DoctorSearchIndexer.normalize(first))
+                    .lastNameKey(DoctorSearchIndexer.normalize(last))
+                    .specialityTitle(i % 3 == 0 ? "Cardiology" : "Dermatology")
+                    .bio("Consultant with " + i + " years of experience")
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        assertEquals(DATABASE, mongoTemplate.getDb().getName());
+        mongoTemplate.remove(Query.query(Criteria.where("_id").regex("^" + ID_PREFIX)), DoctorSearchView.class);
+    }
+
+    @Test
+    void textSearchUsesTextIndex() {
+        String plan = winningPlan(DoctorService.textQuery("cardiology"));
+
+        assertTrue(plan.contains("TEXT"), plan);
+        assertFalse(plan.contains("COLLSCAN"), plan);
+    }
+
+    @Test
+    void prefixSearchUsesNameTokenIndex() {
+        String plan = winningPlan(Query.query(DoctorService.namePrefix("Jo")));
+
+        assertTrue(plan.contains("IXSCAN"), plan);
+        assertFalse(plan.contains("COLLSCAN"), plan);
+    }
+
+    @Test
+    void lastNameLookupUsesAnIndex() {
+        String plan = winningPlan(Query.query(Criteria.where("lastNameKey").regex(DoctorSearchIndexer.containing("mith1"))));
+
+        assertTrue(plan.contains("IXSCAN"), plan);
+        assertFalse(plan.contains("COLLSCAN"), plan);
+    }
+
+    @Test
+    void nameTokensCoverFullNamePrefixes() {
+        List<String> tokens = DoctorSearchIndexer.nameTokens("José", "Smith");
+
+        assertTrue(tokens.contains("jo"));
+        assertTrue(tokens.contains("smi"));
+        assertTrue(tokens.contains("jose s"));
+    }
+
+    private String winningPlan(Query query) {
+        Document explain = mongoTemplate.getCollection(mongoTemplate.getCollectionName(DoctorSearchView.class))
+                .find(query.getQueryObject())
+                .explain();
+        Document planner = explain.get("queryPlanner", Document.class);
+        return planner.get("winningPlan", Document.class).toJson();
+    }
+}
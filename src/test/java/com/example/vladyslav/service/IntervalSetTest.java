@@ -0,0 +1,53 @@
+package com.example.vladyslav.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalSetTest {
+
+    private final IntervalSet set = IntervalSet.builder()
+            .add(30, 40)
+            .add(0, 10)
+            .add(10, 20) // touches [0, 10)
+            .add(35, 50) // overlaps [30, 40)
+            .build();
+
+    @Test
+    void mergesOverlappingAndTouchingIntervals() {
+        assertEquals(2, set.size());
+        assertTrue(set.overlaps(15, 16));
+        assertTrue(set.overlaps(45, 46));
+    }
+
+    @Test
+    void boundsAreHalfOpen() {
+        assertFalse(set.overlaps(-5, 0));
+        assertFalse(set.overlaps(20, 30));
+        assertFalse(set.overlaps(50, 60));
+        assertTrue(set.overlaps(19, 21));
+        assertTrue(set.overlaps(29, 31));
+        assertTrue(set.overlaps(-5, 100));
+    }
+
+    @Test
+    void ignoresEmptyIntervals() {
+        assertSame(IntervalSet.EMPTY, IntervalSet.builder().add(5, 5).add(9, 3).build());
+        assertFalse(IntervalSet.EMPTY.overlaps(0, Long.MAX_VALUE));
+    }
+
+    @Test
+    void cursorAgreesWithBinarySearchForAscendingProbes() {
+        IntervalSet.Builder builder = IntervalSet.builder();
+        for (long s = 0; s < 1_000; s += 37) builder.add(s, s + 11);
+        IntervalSet many = builder.build();
+
+        IntervalSet.Cursor cursor = many.cursor();
+        for (long start = 0; start < 1_000; start += 5) {
+            assertEquals(many.overlaps(start, start + 5), cursor.overlaps(start, start + 5), "probe at " + start);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.exception.OurException;
+import com.example.vladyslav.model.Appointment;
+import com.example.vladyslav.model.AvailabilityRule;
+import com.example.vladyslav.model.Window;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotBookingAlignmentTest {
+
+    private static final String DOCTOR = "doctor-1";
+
+    @Test
+    void everyListedSlotCanBeBooked() {
+        List<AvailabilityRule> rules = List.of(
+                rule(1, "09:00", "12:00", 20, 5, 10, List.of()),
+                rule(2, "08:30", "17:00", 15, 0, 5, List.of(new Window(LocalTime.parse("12:35"), LocalTime.parse("13:20")))),
+                rule(3, "10:05", "11:55", 25, 10, 0, List.of()),
+                rule(7, "00:30", "03:30", 30, 0, 0, List.of()));
+        DoctorDaySnapshot snapshot = new DoctorDaySnapshot(DOCTOR, WeeklyAvailability.compile(rules), TimeOffIndex.Entry.of(List.of()));
+
+        // Covers both UK clock changes of 2030 (31 March and 27 October)
+        List<Instant[]> free = new ArrayList<>();
+        for (LocalDate from : List.of(LocalDate.of(2030, 3, 24), LocalDate.of(2030, 10, 20))) {
+            SlotEngine.expand(rules, IntervalSet.EMPTY, IntervalSet.EMPTY, IntervalSet.EMPTY, from, from.plusDays(13),
+                    (start, end, state) -> {
+                        if (state == SlotEngine.SlotState.FREE) free.add(new Instant[]{start, end});
+                        return true;
+                    });
+        }
+
+        assertFalse(free.isEmpty());
+        for (Instant[] slot : free) {
+            assertTrue(SlotClaimService.isAligned(slot[0]) && SlotClaimService.isAligned(slot[1]), slot[0] + "-" + slot[1]);
+            assertDoesNotThrow(() -> snapshot.ensureBookable(appointment(slot[0], slot[1])), slot[0] + "-" + slot[1]);
+        }
+    }
+
+    @Test
+    void legacyMisalignedRuleListsNoSlots() {
+        List<AvailabilityRule> rules = List.of(rule(1, "09:00", "12:00", 7, 2, 0, List.of()));
+        List<Instant> listed = new ArrayList<>();
+
+        SlotEngine.expand(rules, IntervalSet.EMPTY, IntervalSet.EMPTY, IntervalSet.EMPTY,
+                LocalDate.of(2030, 1, 7), LocalDate.of(2030, 1, 13), (start, end, state) -> listed.add(start));
+
+        assertTrue(listed.isEmpty());
+    }
+
+    @Test
+    void rulesMustBeOnTheClaimGrid() {
+        AvailabilityRuleService service = new AvailabilityRuleService(null, null);
+
+        assertThrows(OurException.class, () -> service.upsert(rule(1, "09:00", "12:00", 7, 0, 0, List.of())));
+        assertThrows(OurException.class, () -> service.upsert(rule(1, "09:00", "12:00", 30, 2, 0, List.of())));
+        assertThrows(OurException.class, () -> service.upsert(rule(1, "09:03", "12:00", 30, 0, 0, List.of())));
+        assertThrows(OurException.class, () -> service.upsert(rule(1, "09:00", "12:00", 30, 0, 0,
+                List.of(new Window(LocalTime.parse("10:00"), LocalTime.parse("10:12"))))));
+    }
+
+    private static AvailabilityRule rule(int dow, String start, String end, int slot, int before, int after, List<Window> breaks) {
+        return AvailabilityRule.builder()
+                .doctorId(DOCTOR)
+                .dayOfWeek(dow)
+                .start(LocalTime.parse(start))
+                .end(LocalTime.parse(end))
+                .slotMinutes(slot)
+                .bufferBeforeMinutes(before)
+                .bufferAfterMinutes(after)
+                .breaks(breaks)
+                .build();
+    }
+
+    private static Appointment appointment(Instant start, Instant end) {
+        return Appointment.builder().doctorId(DOCTOR).patientId("patient-1").start(start).end(end).build();
+    }
+}
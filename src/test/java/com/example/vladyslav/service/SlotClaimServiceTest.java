@@ -0,0 +1,64 @@
+package com.example.vladyslav.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotClaimServiceTest {
+
+    private static final String DOCTOR = "doctor-1";
+    private static final Instant NINE = Instant.parse("2030-01-07T09:00:00Z");
+
+    @Test
+    void claimsOneIdPerGranuleOfTheBooking() {
+        List<String> ids = new ArrayList<>(SlotClaimService.granuleIds(DOCTOR, NINE, at(30)));
+
+        assertEquals(6, ids.size());
+        assertEquals(DOCTOR + ":" + NINE.toEpochMilli(), ids.get(0));
+        assertEquals(DOCTOR + ":" + at(25).toEpochMilli(), ids.get(5));
+    }
+
+    @Test
+    void unalignedBookingClaimsEveryGranuleItTouches() {
+        Set<String> ids = SlotClaimService.granuleIds(DOCTOR, NINE.plusSeconds(120), NINE.plusSeconds(420));
+
+        assertEquals(Set.of(DOCTOR + ":" + NINE.toEpochMilli(), DOCTOR + ":" + at(5).toEpochMilli()), ids);
+    }
+
+    @Test
+    void adjacentBookingsShareNoClaim() {
+        Set<String> first = new HashSet<>(SlotClaimService.granuleIds(DOCTOR, NINE, at(30)));
+        first.retainAll(SlotClaimService.granuleIds(DOCTOR, at(30), at(60)));
+
+        assertTrue(first.isEmpty());
+        assertEquals(1, SlotClaimService.granuleIds(DOCTOR, NINE, at(5)).size());
+    }
+
+    @Test
+    void overlappingBookingsShareAClaim() {
+        Set<String> first = new HashSet<>(SlotClaimService.granuleIds(DOCTOR, NINE, at(30)));
+        first.retainAll(SlotClaimService.granuleIds(DOCTOR, at(25), at(55)));
+
+        assertEquals(Set.of(DOCTOR + ":" + at(25).toEpochMilli()), first);
+    }
+
+    @Test
+    void alignmentIsTheGranuleGrid() {
+        assertTrue(SlotClaimService.isAligned(NINE));
+        assertTrue(SlotClaimService.isAligned(at(35)));
+        assertFalse(SlotClaimService.isAligned(NINE.plusSeconds(60)));
+        assertFalse(SlotClaimService.isAligned(NINE.plusMillis(1)));
+    }
+
+    private static Instant at(int minutesAfterNine) {
+        return NINE.plusSeconds(minutesAfterNine * 60L);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.model.AvailabilityRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotEngineTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+    private static final LocalDate SPRING_FORWARD = LocalDate.of(2030, 3, 31);
+    private static final LocalDate FALL_BACK = LocalDate.of(2030, 10, 27);
+
+    @Test
+    void subtractsBusyTimeAsHalfOpenIntervals() {
+        List<AvailabilityRule> rules = List.of(rule(1, "09:00", "11:00", 30, 0, 0));
+        IntervalSet timeOff = set(at(MONDAY, "10:30"), at(MONDAY, "11:00"));
+        IntervalSet booked = set(at(MONDAY, "09:30"), at(MONDAY, "10:00"));
+        IntervalSet held = set(at(MONDAY, "08:00"), at(MONDAY, "09:00"));
+
+        List<Slot> slots = expand(rules, timeOff, booked, held, MONDAY);
+
+        assertEquals(List.of(
+                new Slot(at(MONDAY, "09:00"), at(MONDAY, "09:30"), SlotEngine.SlotState.FREE),
+                new Slot(at(MONDAY, "09:30"), at(MONDAY, "10:00"), SlotEngine.SlotState.BOOKED),
+                new Slot(at(MONDAY, "10:00"), at(MONDAY, "10:30"), SlotEngine.SlotState.FREE),
+                new Slot(at(MONDAY, "10:30"), at(MONDAY, "11:00"), SlotEngine.SlotState.TIME_OFF)), slots);
+    }
+
+    @Test
+    void checksTheBufferedFootprintAgainstBusyTime() {
+        List<AvailabilityRule> rules = List.of(rule(1, "09:00", "11:00", 30, 0, 10));
+        // Only the first slot's trailing buffer touches this booking
+        IntervalSet booked = set(at(MONDAY, "09:35"), at(MONDAY, "09:40"));
+
+        List<Slot> slots = expand(rules, IntervalSet.EMPTY, booked, IntervalSet.EMPTY, MONDAY);
+
+        assertEquals(List.of(
+                new Slot(at(MONDAY, "09:00"), at(MONDAY, "09:30"), SlotEngine.SlotState.BOOKED),
+                new Slot(at(MONDAY, "09:40"), at(MONDAY, "10:10"), SlotEngine.SlotState.FREE),
+                new Slot(at(MONDAY, "10:20"), at(MONDAY, "10:50"), SlotEngine.SlotState.FREE)), slots);
+    }
+
+    @Test
+    void springForwardSkipsTheMissingHour() {
+        List<Slot> slots = expand(List.of(rule(7, "00:00", "04:00", 30, 0, 0)),
+                IntervalSet.EMPTY, IntervalSet.EMPTY, IntervalSet.EMPTY, SPRING_FORWARD);
+
+        // 00:00 and 00:30 GMT, then 02:00 to 03:30 BST; local 01:00-02:00 does not exist
+        assertEquals(6, slots.size());
+        assertEquals(Instant.parse("2030-03-31T00:00:00Z"), slots.get(0).start);
+        assertEquals(Instant.parse("2030-03-31T01:00:00Z"), slots.get(2).start);
+        assertRealSlots(slots, 30);
+    }
+
+    @Test
+    void fallBackListsNoStretchedSlot() {
+        List<Slot> slots = expand(List.of(rule(7, "00:00", "04:00", 30, 0, 0)),
+                IntervalSet.EMPTY, IntervalSet.EMPTY, IntervalSet.EMPTY, FALL_BACK);
+
+        // Local 01:30-02:00 would run from 01:30 BST to 02:00 GMT, 90 real minutes
+        assertEquals(7, slots.size());
+        assertEquals(Instant.parse("2030-10-26T23:00:00Z"), slots.get(0).start);
+        assertEquals(Instant.parse("2030-10-27T02:00:00Z"), slots.get(3).start);
+        assertRealSlots(slots, 30);
+    }
+
+    @Test
+    void stopsWhenTheVisitorSaysSo() {
+        List<Instant> starts = new ArrayList<>();
+        SlotEngine.expand(List.of(rule(1, "09:00", "17:00", 15, 0, 0)), IntervalSet.EMPTY, IntervalSet.EMPTY, IntervalSet.EMPTY,
+                MONDAY, MONDAY.plusDays(7), (start, end, state) -> {
+                    starts.add(start);
+                    return starts.size() < 3;
+                });
+
+        assertEquals(3, starts.size());
+    }
+
+    private static void assertRealSlots(List<Slot> slots, int minutes) {
+        for (int i = 0; i < slots.size(); i++) {
+            Slot slot = slots.get(i);
+            assertEquals(Duration.ofMinutes(minutes), Duration.between(slot.start, slot.end), slot.toString());
+            if (i > 0) assertTrue(slots.get(i - 1).end.compareTo(slot.start) <= 0, slot.toString());
+        }
+    }
+
+    private static List<Slot> expand(List<AvailabilityRule> rules, IntervalSet timeOff, IntervalSet booked, IntervalSet held,
+                                     LocalDate day) {
+        List<Slot> slots = new ArrayList<>();
+        SlotEngine.expand(rules, timeOff, booked, held, day, day, (start, end, state) -> slots.add(new Slot(start, end, state)));
+        return slots;
+    }
+
+    private static AvailabilityRule rule(int dow, String start, String end, int slot, int before, int after) {
+        return AvailabilityRule.builder()
+                .doctorId("doctor-1")
+                .dayOfWeek(dow)
+                .start(LocalTime.parse(start))
+                .end(LocalTime.parse(end))
+                .slotMinutes(slot)
+                .bufferBeforeMinutes(before)
+                .bufferAfterMinutes(after)
+                .breaks(List.of())
+                .build();
+    }
+
+    private static IntervalSet set(Instant start, Instant end) {
+        return IntervalSet.builder().add(start.toEpochMilli(), end.toEpochMilli()).build();
+    }
+
+    private static Instant at(LocalDate day, String time) {
+        return Instant.ofEpochMilli(SlotEngine.toEpochMilli(day, SlotEngine.minuteOfDay(LocalTime.parse(time))));
+    }
+
+    private record Slot(Instant start, Instant end, SlotEngine.SlotState state) {}
+}
@@ -0,0 +1,69 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.model.Appointment;
+import com.example.vladyslav.model.AvailabilityRule;
+import com.example.vladyslav.model.TimeOff;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeOffIndexTest {
+
+    private static final String DOCTOR = "doctor-1";
+    // Monday
+    private static final Instant NOON = Instant.parse("2030-01-07T12:00:00Z");
+
+    private final TimeOffIndex.Entry entry = TimeOffIndex.Entry.of(List.of(
+            timeOff("a", NOON, NOON.plusSeconds(3600)),
+            timeOff("b", NOON.plusSeconds(4 * 3600), NOON.plusSeconds(5 * 3600))));
+
+    @Test
+    void touchingRangesDoNotOverlap() {
+        assertFalse(entry.overlaps(ms(NOON.minusSeconds(1800)), ms(NOON)));
+        assertFalse(entry.overlaps(ms(NOON.plusSeconds(3600)), ms(NOON.plusSeconds(5400))));
+        assertFalse(entry.overlaps(ms(NOON.plusSeconds(3 * 3600)), ms(NOON.plusSeconds(4 * 3600))));
+    }
+
+    @Test
+    void intersectingRangesOverlap() {
+        assertTrue(entry.overlaps(ms(NOON.minusSeconds(1800)), ms(NOON.plusSeconds(60))));
+        assertTrue(entry.overlaps(ms(NOON.plusSeconds(3540)), ms(NOON.plusSeconds(5400))));
+        assertTrue(entry.overlaps(ms(NOON.plusSeconds(600)), ms(NOON.plusSeconds(900))));
+        assertTrue(entry.overlaps(ms(NOON.minusSeconds(3600)), ms(NOON.plusSeconds(6 * 3600))));
+    }
+
+    @Test
+    void slotEndingWhenTheTimeOffStartsIsBookable() {
+        AvailabilityRule rule = AvailabilityRule.builder()
+                .doctorId(DOCTOR)
+                .dayOfWeek(1)
+                .start(LocalTime.parse("09:00"))
+                .end(LocalTime.parse("17:00"))
+                .slotMinutes(30)
+                .breaks(List.of())
+                .build();
+        DoctorDaySnapshot snapshot = new DoctorDaySnapshot(DOCTOR, WeeklyAvailability.compile(List.of(rule)), entry);
+
+        assertDoesNotThrow(() -> snapshot.ensureBookable(appointment(NOON.minusSeconds(1800), NOON)));
+        assertDoesNotThrow(() -> snapshot.ensureBookable(appointment(NOON.plusSeconds(3600), NOON.plusSeconds(5400))));
+        assertTrue(snapshot.duringTimeOff(NOON.minusSeconds(1800), NOON.plusSeconds(1800)));
+    }
+
+    private static TimeOff timeOff(String id, Instant start, Instant end) {
+        return TimeOff.builder().id(id).doctorId(DOCTOR).start(start).end(end).build();
+    }
+
+    private static Appointment appointment(Instant start, Instant end) {
+        return Appointment.builder().doctorId(DOCTOR).patientId("patient-1").start(start).end(end).build();
+    }
+
+    private static long ms(Instant instant) {
+        return instant.toEpochMilli();
+    }
+}
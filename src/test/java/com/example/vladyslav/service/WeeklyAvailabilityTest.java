@@ -0,0 +1,57 @@
+package com.example.vladyslav.service;
+
+import com.example.vladyslav.model.AvailabilityRule;
+import com.example.vladyslav.model.Window;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeeklyAvailabilityTest {
+
+    // Monday 09:00-12:00, break 10:30-11:00, 10 minutes before and 5 after every appointment
+    private final WeeklyAvailability week = WeeklyAvailability.compile(List.of(AvailabilityRule.builder()
+            .doctorId("doctor-1")
+            .dayOfWeek(1)
+            .start(LocalTime.parse("09:00"))
+            .end(LocalTime.parse("12:00"))
+            .slotMinutes(5)
+            .bufferBeforeMinutes(10)
+            .bufferAfterMinutes(5)
+            .breaks(List.of(new Window(LocalTime.parse("10:30"), LocalTime.parse("11:00"))))
+            .build()));
+
+    @Test
+    void buffersErodeTheStartAndEndOfTheDay() {
+        assertTrue(covers("09:10", "09:40"));
+        assertFalse(covers("09:05", "09:35"));
+        assertTrue(covers("11:25", "11:55"));
+        assertFalse(covers("11:30", "12:00"));
+    }
+
+    @Test
+    void buffersErodeAroundBreaks() {
+        assertTrue(covers("10:00", "10:25"));
+        assertFalse(covers("10:00", "10:30"));
+        assertFalse(covers("11:05", "11:35"));
+        assertTrue(covers("11:10", "11:40"));
+        assertFalse(covers("10:20", "11:20"));
+    }
+
+    @Test
+    void daysWithoutARuleAreNotBookable() {
+        assertFalse(week.covers(2, minute("10:00"), minute("10:30")));
+        assertFalse(covers("10:00", "10:00"));
+    }
+
+    private boolean covers(String start, String end) {
+        return week.covers(1, minute(start), minute(end));
+    }
+
+    private static int minute(String time) {
+        return SlotEngine.minuteOfDay(LocalTime.parse(time));
+    }
+}